@@ -0,0 +1,39 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks. Takes the same arguments as the standard JMH launcher,
+ * but always adds the GC profiler so allocation rate is reported alongside
+ * throughput, and runs forks headless.
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		var cmd = new CommandLineOptions(args);
+		var opts = new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class)
+				.jvmArgsAppend("-Djava.awt.headless=true").build();
+		new Runner(opts).run();
+	}
+}
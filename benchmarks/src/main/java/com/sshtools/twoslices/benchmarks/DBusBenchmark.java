@@ -0,0 +1,74 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sshtools.twoslices.Slice;
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToastType;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.impl.DBUSNotifyToaster;
+import com.sshtools.twoslices.testsupport.FakeNotificationsService;
+
+/**
+ * Showing and closing a message with {@link DBUSNotifyToaster}, using an
+ * in-process DBus daemon and fake notification service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DBusBenchmark {
+
+	private FakeNotificationsService service;
+	private DBUSNotifyToaster toaster;
+
+	@Setup
+	public void setup() throws IOException {
+		service = new FakeNotificationsService().record(false);
+		toaster = new DBUSNotifyToaster(new ToasterSettings().setAppName("Benchmark"));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		service.close();
+	}
+
+	@Benchmark
+	public Slice toastAndClose() throws IOException {
+		var slice = new ToastBuilder().toaster(toaster).type(ToastType.INFO).title("Title").content("Some content")
+				.action("open", "Open", () -> {
+				}).toast();
+		slice.close();
+		return slice;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterFactory;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.impl.SysOutToaster;
+
+/**
+ * Looking up the {@link Toaster} from {@link ToasterFactory}, as done for every
+ * message that does not specify a toaster. Services are probed once during
+ * setup, so this measures the cached lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FactoryBenchmark {
+
+	@Setup
+	public void setup() {
+		var settings = new ToasterSettings();
+		settings.setPreferredToasterClassName(SysOutToaster.class.getName());
+		ToasterFactory.setSettings(settings);
+		ToasterFactory.setFactory(null);
+		ToasterFactory.getFactory().toaster();
+	}
+
+	@TearDown
+	public void tearDown() {
+		ToasterFactory.setFactory(null);
+	}
+
+	@Benchmark
+	public Toaster lookup() {
+		return ToasterFactory.getFactory().toaster();
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sshtools.twoslices.Slice;
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToastType;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.impl.GNTPToaster;
+import com.sshtools.twoslices.testsupport.FakeGNTPServer;
+
+/**
+ * Encoding and sending a message with {@link GNTPToaster} to a local fake GNTP
+ * server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GNTPBenchmark {
+
+	private FakeGNTPServer server;
+	private GNTPToaster toaster;
+
+	@Setup
+	public void setup() throws IOException {
+		server = new FakeGNTPServer();
+		toaster = new GNTPToaster(server.configure(new ToasterSettings().setAppName("Benchmark")));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		server.close();
+	}
+
+	@Benchmark
+	public Slice toast() {
+		return new ToastBuilder().toaster(toaster).type(ToastType.INFO).title("Title").content("Some content")
+				.toast();
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sshtools.twoslices.AbstractToaster;
+import com.sshtools.twoslices.BasicToastHint;
+import com.sshtools.twoslices.ResolvedHints;
+import com.sshtools.twoslices.Slice;
+import com.sshtools.twoslices.Toast;
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToastHint;
+import com.sshtools.twoslices.ToasterSettings;
+
+/**
+ * Resolution of hints by {@link AbstractToaster#getHint}, from each of the
+ * places a hint may be found, and by the typed methods of
+ * {@link ResolvedHints}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HintBenchmark {
+
+	static class HintToaster extends AbstractToaster {
+		HintToaster(ToasterSettings configuration) {
+			super(configuration);
+		}
+
+		@Override
+		public Slice toast(Toast toast) {
+			return Slice.defaultSlice();
+		}
+
+		<V> V hint(Map<ToastHint, Object> hints, ToastHint hint, V defaultValue) {
+			return getHint(hints, hint, defaultValue);
+		}
+
+		ResolvedHints resolved() {
+			return hints();
+		}
+	}
+
+	private HintToaster toaster;
+	private Map<ToastHint, Object> messageHints;
+	private Map<ToastHint, Object> noHints;
+
+	@Setup
+	public void setup() {
+		var settings = new ToasterSettings();
+		settings.getHints().put(BasicToastHint.THRESHOLD, 5);
+		settings.getProperties().put(BasicToastHint.COLLAPSE_MESSAGE.toLegacyKey(), "More");
+		toaster = new HintToaster(settings);
+		messageHints = new ToastBuilder().hint(BasicToastHint.DARK, true).build().hints();
+		noHints = new ToastBuilder().build().hints();
+	}
+
+	@Benchmark
+	public Object messageHint() {
+		return toaster.hint(messageHints, BasicToastHint.DARK, false);
+	}
+
+	@Benchmark
+	public Object settingsHint() {
+		return toaster.hint(noHints, BasicToastHint.THRESHOLD, 3);
+	}
+
+	@Benchmark
+	public Object legacyProperty() {
+		return toaster.hint(noHints, BasicToastHint.COLLAPSE_MESSAGE, "Collapsed");
+	}
+
+	@Benchmark
+	public Object defaultValue() {
+		return toaster.hint(noHints, BasicToastHint.OFFSET, 0);
+	}
+
+	@Benchmark
+	public int resolvedSettingsHint() {
+		return toaster.resolved().getInt(noHints, BasicToastHint.THRESHOLD, 3);
+	}
+
+	@Benchmark
+	public boolean resolvedMessageHint() {
+		return toaster.resolved().getBoolean(messageHints, BasicToastHint.DARK, false);
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.benchmarks;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Param;
+
+import com.sshtools.twoslices.ImageDecoder;
+import com.sshtools.twoslices.ImageDecoder.DecodedImage;
+
+/**
+ * Decoding and scaling an image to notification size with
+ * {@link ImageDecoder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageDecodeBenchmark {
+
+	@Param({ "256", "2048" })
+	public int sourceSize;
+
+	@Param({ "48", "128" })
+	public int targetSize;
+
+	private File file;
+
+	@Setup
+	public void setup() throws IOException {
+		var image = new BufferedImage(sourceSize, sourceSize, BufferedImage.TYPE_INT_ARGB);
+		var g = image.createGraphics();
+		try {
+			g.setPaint(new GradientPaint(0, 0, Color.RED, sourceSize, sourceSize, Color.BLUE));
+			g.fillRect(0, 0, sourceSize, sourceSize);
+		} finally {
+			g.dispose();
+		}
+		file = Files.createTempFile("twoslices", ".png").toFile();
+		ImageIO.write(image, "png", file);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file.toPath());
+	}
+
+	@Benchmark
+	public DecodedImage decode() throws IOException {
+		return ImageDecoder.decode(file, targetSize, ImageDecoder.DEFAULT_PIXEL_BUDGET);
+	}
+}
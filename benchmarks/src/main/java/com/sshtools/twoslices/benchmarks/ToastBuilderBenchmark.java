@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sshtools.twoslices.BasicToastHint;
+import com.sshtools.twoslices.Toast;
+import com.sshtools.twoslices.ToastActionListener;
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToastTemplate;
+import com.sshtools.twoslices.ToastType;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.impl.SysOutToaster;
+
+/**
+ * Construction of a {@link ToastBuilder}, as done for every message, and of
+ * the {@link Toast} passed to the toaster, either from a builder or from a
+ * {@link ToastTemplate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToastBuilderBenchmark {
+
+	private final ToastActionListener listener = () -> {
+	};
+
+	@Benchmark
+	public ToastBuilder simple() {
+		return new ToastBuilder().type(ToastType.INFO).title("Title").content("Some content");
+	}
+
+	@Benchmark
+	public ToastBuilder withActionsAndHints() {
+		return new ToastBuilder().type(ToastType.WARNING).title("Title").content("Some content").timeout(10)
+				.action("open", "Open", listener).action("dismiss", "Dismiss", listener).defaultAction(listener)
+				.hint(BasicToastHint.DARK, true).hint(BasicToastHint.IMAGE_SIZE, 64);
+	}
+
+	private ToastTemplate template;
+
+	@Setup
+	public void setup() {
+		template = withActionsAndHints().title("Build {name} failed").content("Failed in {duration}")
+				.toaster(new SysOutToaster(new ToasterSettings())).template();
+	}
+
+	@Benchmark
+	public Toast built() {
+		return withActionsAndHints().title("Build " + "app" + " failed").content("Failed in " + "10s").build();
+	}
+
+	@Benchmark
+	public Toast fromTemplate() {
+		return template.build("app", "10s");
+	}
+}
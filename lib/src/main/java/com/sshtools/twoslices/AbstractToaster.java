@@ -56,20 +56,69 @@ public abstract class AbstractToaster implements Toaster {
 	 * @param defaultValue default value
 	 * @return value
 	 */
-	@SuppressWarnings("unchecked")
 	protected <V> V getHint(Map<ToastHint, Object> hints, ToastHint hint, V defaultValue) {
-		if(hints.containsKey(hint)) {
-			return (V)hints.get(hint);
-		}
-		if(configuration.getHints().containsKey(hint)) {
-			return (V)configuration.getHints().get(hint);
-		}
-		if(configuration.getProperties().containsKey(hint.toLegacyKey())) {
-			return (V)configuration.getProperties().get(hint.toLegacyKey());			
-		}
-		return defaultValue;
+		return hints().get(hints, hint, defaultValue);
+	}
+
+	/**
+	 * Get the hints from the settings, resolved for quick lookup. Prefer the typed
+	 * methods of the returned object to {@link #getHint(Map, ToastHint, Object)}
+	 * for primitive hints.
+	 * 
+	 * @return resolved hints
+	 */
+	protected final ResolvedHints hints() {
+		return configuration.getResolvedHints();
 	}
 	
+	/**
+	 * Get the metrics to record measurements to.
+	 * 
+	 * @return metrics
+	 */
+	protected final ToasterMetrics metrics() {
+		return ToasterFactory.getMetrics();
+	}
+
+	/**
+	 * Create a dispatcher for the listeners of a single message. Toasters should
+	 * run all of a message's listeners using the same dispatcher, rather than
+	 * calling them directly.
+	 * 
+	 * @return listener dispatcher
+	 */
+	protected final ListenerDispatcher listenerDispatcher() {
+		return new ListenerDispatcher(getClass(), configuration);
+	}
+
+	/**
+	 * Called from {@link #toast(Toast)}, on the thread that invoked it, by toasters
+	 * that show the message later, usually on a toolkit UI thread. Delivery will then not be recorded when
+	 * {@link #toast(Toast)} returns, and the toaster should instead call
+	 * {@link #delivered(long)} with the returned time when the message is
+	 * actually shown.
+	 * 
+	 * @param toast toast
+	 * @return time message was submitted, or zero if not known
+	 */
+	protected final long deferDelivery(Toast toast) {
+		ToastBuilder.deferDelivery();
+		return toast.submitted;
+	}
+
+	/**
+	 * Record that a message, the delivery of which was deferred using
+	 * {@link #deferDelivery(Toast)}, has now been shown.
+	 * 
+	 * @param submitted time message was submitted
+	 */
+	protected final void delivered(long submitted) {
+		if (submitted != 0) {
+			metrics().delivered(getClass(), System.nanoTime() - submitted);
+			ToasterEvents.delivery(getClass(), ToasterEvents.PHASE_UI, submitted);
+		}
+	}
+
 	protected static String ensureURL(String pathOrURL) {
 		try {
 			new URL(pathOrURL);
@@ -2,8 +2,12 @@ package com.sshtools.twoslices;
 
 import java.util.List;
 
+import com.sshtools.twoslices.impl.DBUSNotifyToaster;
+import com.sshtools.twoslices.impl.GNTPToaster;
+import com.sshtools.twoslices.impl.JavaFXPopupToaster;
 import com.sshtools.twoslices.impl.JavaFXToaster;
 import com.sshtools.twoslices.impl.NotificationCenterToaster;
+import com.sshtools.twoslices.impl.NotifyToaster;
 
 /**
  * Hints can provide addition configuration to specific toaster implementations.
@@ -13,42 +17,44 @@ public enum BasicToastHint implements ToastHint {
 
 	/**
 	 * Key hint for a CSS stylesheet URI to use. Should be a {@link String}.
-	 * Supported by {@link JavaFXToaster}
+	 * Supported by {@link JavaFXToaster} and {@link JavaFXPopupToaster}
 	 */
 	STYLESHEET,
 
 	/**
 	 * Key hint for a CSS stylesheet URI to use. Should be a {@link List} of
-	 * {@link String}. Supported by {@link JavaFXToaster}
+	 * {@link String}. Supported by {@link JavaFXToaster} and {@link JavaFXPopupToaster}
 	 */
 	STYLESHEETS,
 
 	/**
 	 * Key hint for a an instance of a {@link Function<ToastType, Node>}. This
 	 * should generate a new node for a given toast type. Supported by
-	 * {@link JavaFXToaster}
+	 * {@link JavaFXToaster} and {@link JavaFXPopupToaster}
 	 */
 	TYPE_ICON_GENERATOR,
 	/**
 	 * Key hint for a CSS style to use. Should be a {@link String}. Supported by
-	 * {@link JavaFXToaster}
+	 * {@link JavaFXToaster} and {@link JavaFXPopupToaster}
 	 */
 	STYLE,
 	/**
 	 * Key hinting to use dark mode. Should be a {@link Boolean}. Supported by
-	 * {@link JavaFXToaster}
+	 * {@link JavaFXToaster} and {@link JavaFXPopupToaster}
 	 */
 	DARK,
 
 	/**
 	 * Key hinting of max number of stacked messages before they are collapsed.
-	 * Should be a {@link Integer}. Supported by {@link JavaFXToaster}
+	 * Should be a {@link Integer}. Supported by {@link JavaFXToaster},
+	 * {@link JavaFXPopupToaster} and SWT.
 	 */
 	THRESHOLD,
 
 	/**
 	 * Key hinting of the text to use for collapsed messages. Should be a
-	 * {@link String}. Supported by {@link JavaFXToaster}
+	 * {@link String}. Supported by {@link JavaFXToaster},
+	 * {@link JavaFXPopupToaster} and SWT.
 	 */
 	COLLAPSE_MESSAGE,
 
@@ -69,7 +75,7 @@ public enum BasicToastHint implements ToastHint {
 	 * Key for hint for the maximum size of image content. Should be an
 	 * {@link Integer}. Any size lower than this will be also be scaled up depending
 	 * on {@link SWTToaster#SCALE_UP}. Use a size of zero to prevent scaling
-	 * entirely. Supported by SWT.
+	 * entirely. Supported by SWT and JavaFX.
 	 */
 	IMAGE_SIZE,
 
@@ -82,16 +88,87 @@ public enum BasicToastHint implements ToastHint {
 	ICON_SIZE,
 
 	/**
-	 * Key for hint to use animated window positioning. This is experimental, as
-	 * there are some issues. Supported by SWT.
+	 * Key for hint to use animated window positioning. Should be a
+	 * {@link Boolean}. Supported by SWT.
 	 */
 	ANIMATED,
 
 	/**
 	 * Key for hint to signal which monitor to use. Should be an {@link Integer}.
-	 * Use -1 to indicate the primary monitor (the default). Supported by SWT.
+	 * Use -1 to indicate the primary monitor (the default). Supported by SWT and
+	 * {@link JavaFXPopupToaster}.
 	 */
-	MONITOR;
+	MONITOR,
+
+	/**
+	 * Key for hint for the maximum number of pixels any single image may be
+	 * decoded at. Larger images are subsampled while they are decoded, so the
+	 * full resolution image is never held in memory. Should be a {@link Long} or
+	 * {@link Integer}, defaults to {@link ImageDecoder#DEFAULT_PIXEL_BUDGET}.
+	 * Supported by SWT, AWT and JavaFX.
+	 */
+	MAX_IMAGE_PIXELS,
+
+	/**
+	 * Key for hint to have the toaster run its own UI thread, for applications
+	 * that do not run an event loop for the toolkit themselves. The thread is
+	 * started when first needed. Should be a {@link Boolean}, defaults to
+	 * <code>false</code>. Must be set in {@link ToasterSettings#getHints()}.
+	 * Supported by SWT.
+	 */
+	MANAGED_UI_THREAD,
+
+	/**
+	 * Key for hint for how long a managed UI thread (see
+	 * {@link #MANAGED_UI_THREAD}) is kept once no notifications are active, after
+	 * which it exits and the toolkit's resources are released. Should be an
+	 * {@link Integer} number of seconds, defaults to 30. Must be set in
+	 * {@link ToasterSettings#getHints()}. Supported by SWT.
+	 */
+	UI_THREAD_IDLE_TIMEOUT,
+
+	/**
+	 * Key for hint for the port of the GNTP server to use. Should be an
+	 * {@link Integer}, defaults to {@link GNTPToaster#DEFAULT_PORT}. Must be set in
+	 * {@link ToasterSettings#getHints()}. Supported by {@link GNTPToaster}.
+	 */
+	GNTP_PORT,
+
+	/**
+	 * Key for hint for the <strong>notify-send</strong> command to run. Should be a
+	 * {@link String}, either a command name looked up on the <code>PATH</code> or
+	 * an absolute path. Must be set in {@link ToasterSettings#getHints()}.
+	 * Supported by {@link NotifyToaster}.
+	 */
+	NOTIFY_SEND_PATH,
+
+	/**
+	 * Key for hint to have the D-Bus connection use as few threads as possible,
+	 * i.e. one for each kind of work. Should be a {@link Boolean}, defaults to
+	 * <code>false</code>. Must be set in {@link ToasterSettings#getHints()}. Has no
+	 * effect when an existing connection is shared using
+	 * {@link ToasterSettings#setParent(Object)}. Supported by
+	 * {@link DBUSNotifyToaster}.
+	 */
+	DBUS_LEAN,
+
+	/**
+	 * Key for hint for the priority of a message, higher numbers being more
+	 * urgent. Should be an {@link Integer}, defaults to
+	 * {@link ToastType#priority()}. Used by {@link PriorityDispatcher} to decide
+	 * which waiting message is delivered next, and by {@link #PREEMPT}.
+	 */
+	PRIORITY,
+
+	/**
+	 * Key for hint to make room for a new message, when the number of stacked
+	 * messages reaches {@link #THRESHOLD}, by collapsing the visible message with
+	 * the lowest {@link #PRIORITY} rather than the oldest. A message is only
+	 * collapsed for one of a higher priority. Should be a {@link Boolean},
+	 * defaults to <code>false</code>. Supported by {@link JavaFXPopupToaster} and
+	 * SWT.
+	 */
+	PREEMPT;
 
 	@Override
 	public String toLegacyKey() {
@@ -106,6 +183,12 @@ public enum BasicToastHint implements ToastHint {
 			return "imageSize";
 		case ICON_SIZE:
 			return "iconSize";
+		case GNTP_PORT:
+			return "gntpPort";
+		case NOTIFY_SEND_PATH:
+			return "notifySendPath";
+		case DBUS_LEAN:
+			return "dbusLean";
 		default:
 			return name().toLowerCase();
 		}
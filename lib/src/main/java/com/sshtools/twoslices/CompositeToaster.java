@@ -0,0 +1,441 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.sshtools.twoslices.ToastBuilder.ToastAction;
+
+/**
+ * A {@link Toaster} that delivers each message to several other toasters at
+ * the same time, for example to show errors both on the local desktop and on a
+ * remote GNTP host, but everything else only locally.
+ * <p>
+ * Each toaster is added with a {@link Route} that decides which messages it
+ * receives. Messages are delivered to all of the chosen toasters concurrently,
+ * and {@link #toast(Toast)} returns without waiting for any of them, so one
+ * slow toaster does not delay the others or the caller. The returned
+ * {@link Slice} closes the message in all toasters, including any that are
+ * still delivering. The message's closed listener, and the listener of each of
+ * its actions, are run at most once, however many of the toasters report them.
+ * <p>
+ * The delivery of the message is recorded in {@link ToasterMetrics} as soon as
+ * the first toaster delivers it. If every chosen toaster fails, or has not
+ * delivered it within its timeout (see {@link #timeout(long, TimeUnit)} and
+ * {@link #add(Toaster, Route, long, TimeUnit)}), a failure is recorded
+ * instead. A toaster that has timed out may still show the message later. A
+ * {@link ToasterException} is only thrown by {@link #toast(Toast)} if every
+ * toaster has already failed when it returns, for example when using a direct
+ * {@link #executor(Executor)}. If no toaster is chosen for a message, nothing
+ * is shown.
+ *
+ * <pre>
+ * var toaster = new CompositeToaster(settings)
+ * 		.add(new DBUSNotifyToaster(settings))
+ * 		.add(new GNTPToaster(remoteSettings), Route.types(ToastType.ERROR));
+ * Toast.builder().toaster(toaster).type(ToastType.ERROR).title("Failed").toast();
+ * </pre>
+ */
+public class CompositeToaster extends AbstractToaster {
+
+	/**
+	 * Decides whether a message should be delivered to a toaster.
+	 */
+	@FunctionalInterface
+	public interface Route {
+
+		/**
+		 * Get whether a message should be delivered to a toaster.
+		 * 
+		 * @param toast   message
+		 * @param toaster toaster
+		 * @return deliver to toaster
+		 */
+		boolean accept(Toast toast, Toaster toaster);
+
+		/**
+		 * Get a route that accepts a message only if both this and another route
+		 * accept it.
+		 * 
+		 * @param other other route
+		 * @return route
+		 */
+		default Route and(Route other) {
+			return (toast, toaster) -> accept(toast, toaster) && other.accept(toast, toaster);
+		}
+
+		/**
+		 * Get a route that accepts every message.
+		 * 
+		 * @return route
+		 */
+		static Route all() {
+			return (toast, toaster) -> true;
+		}
+
+		/**
+		 * Get a route that accepts messages of any of the given types.
+		 * 
+		 * @param types types
+		 * @return route
+		 */
+		static Route types(ToastType... types) {
+			var set = EnumSet.noneOf(ToastType.class);
+			set.addAll(Arrays.asList(types));
+			return (toast, toaster) -> set.contains(toast.type());
+		}
+
+		/**
+		 * Get a route that accepts messages that have a hint set to the given value.
+		 * 
+		 * @param hint  hint
+		 * @param value value
+		 * @return route
+		 */
+		static Route hint(ToastHint hint, Object value) {
+			return (toast, toaster) -> toast.hints().containsKey(hint)
+					&& Objects.equals(value, toast.hints().get(hint));
+		}
+
+		/**
+		 * Get a route that accepts messages only for toasters that have all of the
+		 * given capabilities.
+		 * 
+		 * @param capabilities capabilities
+		 * @return route
+		 */
+		static Route capabilities(Capability... capabilities) {
+			var set = Arrays.asList(capabilities);
+			return (toast, toaster) -> toaster.capabilities().containsAll(set);
+		}
+
+		/**
+		 * Get a route that accepts messages only for toasters that can fully show
+		 * them, i.e. that have {@link Capability#ACTIONS} if the message has actions,
+		 * {@link Capability#INPUT} if it has an input action, and
+		 * {@link Capability#IMAGES} if it has an image.
+		 * 
+		 * @return route
+		 */
+		static Route supported() {
+			return (toast, toaster) -> {
+				var caps = toaster.capabilities();
+				if (!toast.actions().isEmpty()) {
+					if (!caps.contains(Capability.ACTIONS))
+						return false;
+					for (var a : toast.actions()) {
+						if (a.input() && !caps.contains(Capability.INPUT))
+							return false;
+					}
+				}
+				return !toast.hasImage() || caps.contains(Capability.IMAGES);
+			};
+		}
+	}
+
+	private final static class Branch {
+		private final Toaster toaster;
+		private final Route route;
+		/* Nanoseconds, or negative to use the composite's timeout */
+		private final long timeout;
+
+		private Branch(Toaster toaster, Route route, long timeout) {
+			this.toaster = toaster;
+			this.route = route;
+			this.timeout = timeout;
+		}
+	}
+
+	private final static class DefaultExecutor {
+		private final static ExecutorService INSTANCE = Executors.newCachedThreadPool(r -> {
+			var t = new Thread(r, "TwoSlicesComposite");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/* Interceptors have already run for the composite */
+	private final static ToastInterceptor[] NO_INTERCEPTORS = new ToastInterceptor[0];
+
+	private final List<Branch> branches = new CopyOnWriteArrayList<>();
+	private Executor executor;
+	private long timeout = TimeUnit.SECONDS.toNanos(5);
+
+	/**
+	 * Constructor
+	 * 
+	 * @param configuration configuration
+	 */
+	public CompositeToaster(ToasterSettings configuration) {
+		super(configuration);
+	}
+
+	/**
+	 * Add a toaster that receives every message.
+	 * 
+	 * @param toaster toaster
+	 * @return this for chaining
+	 */
+	public CompositeToaster add(Toaster toaster) {
+		return add(toaster, Route.all());
+	}
+
+	/**
+	 * Add a toaster that receives the messages accepted by a route.
+	 * 
+	 * @param toaster toaster
+	 * @param route   route
+	 * @return this for chaining
+	 */
+	public CompositeToaster add(Toaster toaster, Route route) {
+		return add(toaster, route, -1);
+	}
+
+	/**
+	 * Add a toaster that receives the messages accepted by a route, with its own
+	 * timeout instead of the one set by {@link #timeout(long, TimeUnit)}, for
+	 * example a shorter one for a remote toaster.
+	 * 
+	 * @param toaster toaster
+	 * @param route   route
+	 * @param timeout longest time this toaster may take to deliver a message
+	 * @param unit    unit of timeout
+	 * @return this for chaining
+	 */
+	public CompositeToaster add(Toaster toaster, Route route, long timeout, TimeUnit unit) {
+		if (timeout < 0)
+			throw new IllegalArgumentException("Timeout must not be negative.");
+		return add(toaster, route, unit.toNanos(timeout));
+	}
+
+	private CompositeToaster add(Toaster toaster, Route route, long timeout) {
+		branches.add(new Branch(toaster, route, timeout));
+		capabilities.addAll(toaster.capabilities());
+		return this;
+	}
+
+	/**
+	 * Get the toasters messages may be delivered to.
+	 * 
+	 * @return toasters
+	 */
+	public List<Toaster> toasters() {
+		var l = new ArrayList<Toaster>(branches.size());
+		for (var b : branches)
+			l.add(b.toaster);
+		return Collections.unmodifiableList(l);
+	}
+
+	/**
+	 * Set the longest time each toaster may take to deliver a message before it
+	 * is counted as having failed, unless the toaster was added with its own
+	 * timeout. Defaults to 5 seconds.
+	 * 
+	 * @param timeout timeout
+	 * @param unit    unit of timeout
+	 * @return this for chaining
+	 */
+	public CompositeToaster timeout(long timeout, TimeUnit unit) {
+		this.timeout = unit.toNanos(timeout);
+		return this;
+	}
+
+	/**
+	 * Set the executor used to deliver messages to the toasters. By default, a
+	 * shared pool of daemon threads is used.
+	 * 
+	 * @param executor executor
+	 * @return this for chaining
+	 */
+	public CompositeToaster executor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	@Override
+	public Slice toast(Toast toast) {
+		var chosen = new ArrayList<Branch>(branches.size());
+		for (var b : branches) {
+			if (b.route.accept(toast, b.toaster))
+				chosen.add(b);
+		}
+		if (chosen.isEmpty())
+			return Slice.defaultSlice();
+
+		var exec = executor == null ? DefaultExecutor.INSTANCE : executor;
+		var outcome = new Outcome(toast, chosen.size(), deferDelivery(toast));
+		/* The same message is shown by several toasters, but its listeners are run once */
+		var shared = chosen.size() == 1 ? toast : once(toast);
+		var slices = new ArrayList<FutureSlice>(chosen.size());
+		for (var b : chosen) {
+			var counted = new AtomicBoolean();
+			var future = CompletableFuture.supplyAsync(
+					() -> ToastBuilder.deliver(b.toaster, new Toast(shared), NO_INTERCEPTORS), exec);
+			var timer = configuration.getScheduler().schedule(() -> {
+				if (counted.compareAndSet(false, true))
+					outcome.failed(new TimeoutException(
+							String.format("%s did not deliver within its timeout.", b.toaster.getClass().getName())));
+			}, b.timeout < 0 ? timeout : b.timeout, TimeUnit.NANOSECONDS);
+			future.whenComplete((slice, error) -> {
+				timer.cancel();
+				if (counted.compareAndSet(false, true)) {
+					if (error == null)
+						outcome.delivered();
+					else
+						outcome.failed(error instanceof CompletionException ? error.getCause() : error);
+				}
+			});
+			slices.add(new FutureSlice(future));
+		}
+		outcome.dispatched();
+		return new CompositeSlice(slices);
+	}
+
+	/*
+	 * A copy of a message whose listeners run at most once, however many toasters
+	 * invoke them
+	 */
+	private static Toast once(Toast toast) {
+		var builder = toast.toBuilder();
+		if (builder.closed() != null)
+			builder.closed(once(builder.closed()));
+		for (var a : builder.actions())
+			once(a);
+		if (builder.defaultAction() != null)
+			once(builder.defaultAction());
+		return new Toast(builder, toast.submitted);
+	}
+
+	private static void once(ToastAction action) {
+		if (action.listener() != null)
+			action.listener(once(action.listener()));
+		if (action.replyListener() != null) {
+			var listener = action.replyListener();
+			var done = new AtomicBoolean();
+			action.replyListener(text -> {
+				if (done.compareAndSet(false, true))
+					listener.reply(text);
+			});
+		}
+	}
+
+	private static ToastActionListener once(ToastActionListener listener) {
+		var done = new AtomicBoolean();
+		return () -> {
+			if (done.compareAndSet(false, true))
+				listener.action();
+		};
+	}
+
+	/*
+	 * The result of delivering a message to all of the chosen toasters. It is
+	 * delivered as soon as one of them delivers it, and fails once they all have
+	 * failed or timed out.
+	 */
+	private final class Outcome {
+		private final Toast toast;
+		private final long submitted;
+		private final List<Throwable> failures = new ArrayList<>();
+		private int remaining;
+		private boolean done;
+		private boolean dispatched;
+
+		private Outcome(Toast toast, int toasters, long submitted) {
+			this.toast = toast;
+			this.remaining = toasters;
+			this.submitted = submitted;
+		}
+
+		void delivered() {
+			synchronized (this) {
+				remaining--;
+				if (done)
+					return;
+				done = true;
+			}
+			CompositeToaster.this.delivered(submitted);
+		}
+
+		void failed(Throwable error) {
+			synchronized (this) {
+				failures.add(error);
+				if (--remaining > 0 || done || !dispatched)
+					return;
+				done = true;
+			}
+			/* No caller to throw to any more */
+			metrics().failed(CompositeToaster.this.getClass(), ToasterException.class);
+		}
+
+		/*
+		 * Called once all toasters have been given the message. If they have all
+		 * failed already, e.g. when using a direct executor, the caller is told.
+		 */
+		void dispatched() {
+			synchronized (this) {
+				dispatched = true;
+				if (done || remaining > 0)
+					return;
+				done = true;
+			}
+			var te = new ToasterException(String.format("All %d toasters failed to show toast for %s: %s",
+					failures.size(), toast.type(), toast.title()), failures.get(0));
+			for (var i = 1; i < failures.size(); i++)
+				te.addSuppressed(failures.get(i));
+			throw te;
+		}
+	}
+
+	private final static class CompositeSlice implements Slice {
+		private final List<FutureSlice> slices;
+
+		private CompositeSlice(List<FutureSlice> slices) {
+			this.slices = slices;
+		}
+
+		@Override
+		public void close() throws IOException {
+			IOException error = null;
+			for (var s : slices) {
+				try {
+					s.close();
+				} catch (IOException ioe) {
+					if (error == null)
+						error = ioe;
+					else
+						error.addSuppressed(ioe);
+				}
+			}
+			if (error != null)
+				throw error;
+		}
+	}
+}
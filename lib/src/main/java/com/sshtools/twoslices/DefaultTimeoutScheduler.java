@@ -0,0 +1,64 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Default {@link TimeoutScheduler}, a single lazily started daemon thread.
+ */
+final class DefaultTimeoutScheduler implements TimeoutScheduler {
+
+	private final static class Holder {
+		private final static DefaultTimeoutScheduler INSTANCE = new DefaultTimeoutScheduler();
+	}
+
+	static DefaultTimeoutScheduler get() {
+		return Holder.INSTANCE;
+	}
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private DefaultTimeoutScheduler() {
+		executor = new ScheduledThreadPoolExecutor(1, r -> {
+			var t = new Thread(r, "TwoSlicesTimeout");
+			t.setDaemon(true);
+			return t;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	@Override
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit, Executor taskExecutor) {
+		var cancelled = new AtomicBoolean();
+		var future = executor.schedule(() -> {
+			taskExecutor.execute(() -> {
+				if (cancelled.compareAndSet(false, true))
+					task.run();
+			});
+		}, delay, unit);
+		return () -> {
+			if (cancelled.compareAndSet(false, true)) {
+				future.cancel(false);
+				return true;
+			}
+			return false;
+		};
+	}
+}
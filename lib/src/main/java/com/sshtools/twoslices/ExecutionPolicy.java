@@ -0,0 +1,72 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.function.Supplier;
+
+/**
+ * Decides which thread a {@link Toaster} delivers a message on. By default,
+ * delivery happens on the caller's thread, which for backends that block
+ * (spawning <strong>notify-send</strong> or <strong>osascript</strong>, a GNTP
+ * round trip, or downloading a remote image) means the caller waits.
+ * <p>
+ * A policy may be set for each backend using
+ * {@link ToasterSettings#setExecutionPolicy(Class, ExecutionPolicy)}.
+ *
+ * <pre>
+ * settings.setExecutionPolicy(NotifyToaster.class, ExecutionPolicy.offload(4));
+ * </pre>
+ */
+public interface ExecutionPolicy {
+
+	/**
+	 * Get a policy that delivers on the caller's thread. This is the default.
+	 * 
+	 * @return policy
+	 */
+	public static ExecutionPolicy callerThread() {
+		return (backend, delivery) -> delivery.get();
+	}
+
+	/**
+	 * Get a policy that delivers on another thread, so the caller does not wait.
+	 * Virtual threads are used if the JDK supports them, otherwise a pool of at
+	 * most <i>maxInFlight</i> daemon threads. No more than <i>maxInFlight</i>
+	 * messages are delivered by each backend at the same time, the rest wait in
+	 * order, so a burst of messages cannot start hundreds of processes or
+	 * connections at once.
+	 * <p>
+	 * Errors are then not thrown to the caller, but are recorded in
+	 * {@link ToasterMetrics#failed(Class, Class)}.
+	 * 
+	 * @param maxInFlight maximum number of messages each backend delivers at the
+	 *                    same time
+	 * @return policy
+	 */
+	public static ExecutionPolicy offload(int maxInFlight) {
+		return new OffloadExecutionPolicy(maxInFlight);
+	}
+
+	/**
+	 * Deliver a message.
+	 * 
+	 * @param backend  class of toaster delivering the message
+	 * @param delivery delivers the message when called, returning its handle
+	 * @return handle to notification message, which may be used before the
+	 *         message is delivered
+	 */
+	Slice execute(Class<? extends Toaster> backend, Supplier<Slice> delivery);
+}
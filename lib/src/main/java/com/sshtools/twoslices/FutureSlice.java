@@ -0,0 +1,55 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link Slice} for a message that may not have been delivered yet. Closing
+ * it before then closes the message as soon as it is delivered.
+ */
+final class FutureSlice implements Slice {
+
+	private final CompletableFuture<Slice> slice;
+
+	FutureSlice(CompletableFuture<Slice> slice) {
+		this.slice = slice;
+	}
+
+	boolean isDone() {
+		return slice.isDone();
+	}
+
+	boolean isFailed() {
+		return slice.isCompletedExceptionally();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (slice.isDone()) {
+			if (!slice.isCompletedExceptionally())
+				slice.join().close();
+		} else {
+			slice.thenAccept(s -> {
+				try {
+					s.close();
+				} catch (IOException ioe) {
+				}
+			});
+		}
+	}
+}
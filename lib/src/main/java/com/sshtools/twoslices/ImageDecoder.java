@@ -0,0 +1,254 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Decodes user supplied images for display in notification messages without
+ * ever holding the full resolution image in memory.
+ * <p>
+ * The dimensions of the image are read first, then {@link ImageIO} is asked to
+ * subsample while decoding, so the decoded image is as close to the target size
+ * as possible while never being smaller than it. Independently of the target
+ * size, the decoded image is never allowed to exceed a <i>pixel budget</i>,
+ * see {@link BasicToastHint#MAX_IMAGE_PIXELS}.
+ * <p>
+ * Toolkit specific toasters convert the resulting {@link BufferedImage} to
+ * their own image type, and then scale it exactly to the size they need.
+ */
+public final class ImageDecoder {
+
+	/**
+	 * The default maximum number of pixels any single decoded image may have,
+	 * used when no {@link BasicToastHint#MAX_IMAGE_PIXELS} hint is set. This is
+	 * 1 megapixel, or about 4MB of heap for an ARGB image.
+	 */
+	public final static long DEFAULT_PIXEL_BUDGET = 1024 * 1024;
+
+	/**
+	 * The result of decoding an image.
+	 */
+	public final static class DecodedImage {
+		private final BufferedImage image;
+		private final int sourceWidth;
+		private final int sourceHeight;
+		private final int subsampling;
+
+		DecodedImage(BufferedImage image, int sourceWidth, int sourceHeight, int subsampling) {
+			this.image = image;
+			this.sourceWidth = sourceWidth;
+			this.sourceHeight = sourceHeight;
+			this.subsampling = subsampling;
+		}
+
+		/**
+		 * Get the decoded image.
+		 * 
+		 * @return image
+		 */
+		public BufferedImage image() {
+			return image;
+		}
+
+		/**
+		 * Get the width of the image as stored in the source.
+		 * 
+		 * @return source width
+		 */
+		public int sourceWidth() {
+			return sourceWidth;
+		}
+
+		/**
+		 * Get the height of the image as stored in the source.
+		 * 
+		 * @return source height
+		 */
+		public int sourceHeight() {
+			return sourceHeight;
+		}
+
+		/**
+		 * Get the subsampling factor used while decoding. A factor of <code>1</code>
+		 * means every pixel was decoded.
+		 * 
+		 * @return subsampling factor
+		 */
+		public int subsampling() {
+			return subsampling;
+		}
+
+		/**
+		 * Get whether the image was downsampled while decoding, i.e. the decoded
+		 * image is smaller than the source image.
+		 * 
+		 * @return downsampled
+		 */
+		public boolean downsampled() {
+			return subsampling > 1;
+		}
+	}
+
+	private ImageDecoder() {
+	}
+
+	/**
+	 * Get the pixel budget to use given a value of the
+	 * {@link BasicToastHint#MAX_IMAGE_PIXELS} hint, which may be <code>null</code>.
+	 * 
+	 * @param hint hint value
+	 * @return pixel budget
+	 */
+	public static long pixelBudget(Number hint) {
+		return hint == null ? DEFAULT_PIXEL_BUDGET : pixelBudget(hint.longValue());
+	}
+
+	/**
+	 * Get the pixel budget to use given a value of the
+	 * {@link BasicToastHint#MAX_IMAGE_PIXELS} hint, where zero or less means the
+	 * default.
+	 * 
+	 * @param hint hint value
+	 * @return pixel budget
+	 */
+	public static long pixelBudget(long hint) {
+		return hint < 1 ? DEFAULT_PIXEL_BUDGET : hint;
+	}
+
+	/**
+	 * Calculate the subsampling factor to use for an image of the given source
+	 * size. The factor will be the largest that still results in an image at
+	 * least <code>targetSize</code> in its largest dimension, and then increased
+	 * until the result fits within the pixel budget.
+	 * 
+	 * @param width       source width
+	 * @param height      source height
+	 * @param targetSize  target size of largest dimension, or zero for no target
+	 * @param pixelBudget maximum number of pixels in decoded image
+	 * @return subsampling factor, <code>1</code> for no subsampling
+	 */
+	public static int subsampling(int width, int height, int targetSize, long pixelBudget) {
+		var factor = 1;
+		if (targetSize > 0) {
+			factor = Math.max(1, Math.max(width, height) / targetSize);
+		}
+		var budget = Math.max(1, pixelBudget);
+		factor = Math.max(factor, (int) Math.sqrt((double) width * height / budget));
+		while (decodedSize(width, factor) * decodedSize(height, factor) > budget) {
+			factor++;
+		}
+		return factor;
+	}
+
+	/**
+	 * Decode an image given either a path to a file or a string representation
+	 * of a {@link URL}.
+	 * 
+	 * @param pathOrURL   path or URL
+	 * @param targetSize  target size of largest dimension, or zero for no target
+	 * @param pixelBudget maximum number of pixels in decoded image
+	 * @return decoded image
+	 * @throws IOException on error
+	 */
+	public static DecodedImage decode(String pathOrURL, int targetSize, long pixelBudget) throws IOException {
+		URL url;
+		try {
+			url = new URL(pathOrURL);
+		} catch (MalformedURLException mue) {
+			return decode(new File(pathOrURL), targetSize, pixelBudget);
+		}
+		return decode(url, targetSize, pixelBudget);
+	}
+
+	/**
+	 * Decode an image from a {@link URL}.
+	 * 
+	 * @param url         URL
+	 * @param targetSize  target size of largest dimension, or zero for no target
+	 * @param pixelBudget maximum number of pixels in decoded image
+	 * @return decoded image
+	 * @throws IOException on error
+	 */
+	public static DecodedImage decode(URL url, int targetSize, long pixelBudget) throws IOException {
+		try (var in = url.openStream()) {
+			return decodeInput(in, targetSize, pixelBudget);
+		}
+	}
+
+	/**
+	 * Decode an image from a {@link File}.
+	 * 
+	 * @param file        file
+	 * @param targetSize  target size of largest dimension, or zero for no target
+	 * @param pixelBudget maximum number of pixels in decoded image
+	 * @return decoded image
+	 * @throws IOException on error
+	 */
+	public static DecodedImage decode(File file, int targetSize, long pixelBudget) throws IOException {
+		return decodeInput(file, targetSize, pixelBudget);
+	}
+
+	/**
+	 * Decode an image from an {@link InputStream}. The stream will not be closed.
+	 * 
+	 * @param in          input stream
+	 * @param targetSize  target size of largest dimension, or zero for no target
+	 * @param pixelBudget maximum number of pixels in decoded image
+	 * @return decoded image
+	 * @throws IOException on error
+	 */
+	public static DecodedImage decode(InputStream in, int targetSize, long pixelBudget) throws IOException {
+		return decodeInput(in, targetSize, pixelBudget);
+	}
+
+	private static DecodedImage decodeInput(Object input, int targetSize, long pixelBudget) throws IOException {
+		var started = System.nanoTime();
+		try (var iin = ImageIO.createImageInputStream(input)) {
+			if (iin == null)
+				throw new IOException("Cannot read image from " + input + ".");
+			var readers = ImageIO.getImageReaders(iin);
+			if (!readers.hasNext())
+				throw new IOException("Unsupported image format.");
+			var reader = readers.next();
+			try {
+				reader.setInput(iin, true, true);
+				var width = reader.getWidth(0);
+				var height = reader.getHeight(0);
+				var factor = subsampling(width, height, targetSize, pixelBudget);
+				var param = reader.getDefaultReadParam();
+				if (factor > 1)
+					param.setSourceSubsampling(factor, factor, 0, 0);
+				var decoded = new DecodedImage(reader.read(0, param), width, height, factor);
+				ToasterEvents.image(width, height, factor, started);
+				return decoded;
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	private static long decodedSize(int size, int factor) {
+		return (size + factor - 1) / factor;
+	}
+}
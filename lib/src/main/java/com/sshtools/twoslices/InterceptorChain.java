@@ -0,0 +1,69 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The {@link ToastInterceptor.Chain} for a single message, positioned at one
+ * interceptor. Each position is a separate instance, so an interceptor may
+ * call {@link #proceed(Toast)} more than once, or from another thread.
+ */
+final class InterceptorChain implements ToastInterceptor.Chain {
+
+	private final ToastInterceptor[] interceptors;
+	private final Toaster toaster;
+	private final long submitted;
+	private final int index;
+
+	InterceptorChain(ToastInterceptor[] interceptors, Toaster toaster, long submitted) {
+		this(interceptors, toaster, submitted, 0);
+	}
+
+	private InterceptorChain(ToastInterceptor[] interceptors, Toaster toaster, long submitted, int index) {
+		this.interceptors = interceptors;
+		this.toaster = toaster;
+		this.submitted = submitted;
+		this.index = index;
+	}
+
+	@Override
+	public Toaster toaster() {
+		return toaster;
+	}
+
+	@Override
+	public Slice proceed(Toast toast) {
+		if (index < interceptors.length)
+			return interceptors[index].intercept(toast,
+					new InterceptorChain(interceptors, toaster, submitted, index + 1));
+
+		/* A message created by an interceptor keeps the original submission time */
+		if (toast.submitted != submitted)
+			toast = new Toast(toast, submitted);
+		return ToastBuilder.execute(toaster, toast);
+	}
+
+	@Override
+	public Slice proceedLater(Toast toast, Executor executor) {
+		return new FutureSlice(CompletableFuture.supplyAsync(() -> proceed(toast), executor).whenComplete((s, e) -> {
+			if (e != null)
+				ToasterFactory.getMetrics().failed(toaster.getClass(),
+						(e.getCause() == null ? e : e.getCause()).getClass());
+		}));
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.function.Supplier;
+
+/**
+ * A value that is computed by a {@link Supplier} the first time it is needed,
+ * and then remembered. The supplier is called at most once, even if the value
+ * is needed by several threads at the same time, unless it throws an
+ * exception, in which case it will be called again next time.
+ *
+ * @param <T> type of value
+ */
+final class Lazy<T> implements Supplier<T> {
+
+	/**
+	 * Get a value that may be lazy, i.e. if the object is a {@link Lazy}, its
+	 * value, otherwise the object itself.
+	 * 
+	 * @param <T>   type of value
+	 * @param value value or lazy value
+	 * @return value
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T value(Object value) {
+		return value instanceof Lazy ? ((Lazy<T>) value).get() : (T) value;
+	}
+
+	private Supplier<? extends T> supplier;
+	private T value;
+	private volatile boolean done;
+
+	Lazy(Supplier<? extends T> supplier) {
+		this.supplier = supplier;
+	}
+
+	@Override
+	public T get() {
+		if (!done) {
+			synchronized (this) {
+				if (!done) {
+					value = supplier.get();
+					supplier = null;
+					done = true;
+				}
+			}
+		}
+		return value;
+	}
+}
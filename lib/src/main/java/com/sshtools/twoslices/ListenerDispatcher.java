@@ -0,0 +1,133 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches the listeners of a single notification message, i.e. its
+ * {@link ToastActionListener}s, closed listener and {@link ToastReplyListener},
+ * using {@link ToasterSettings#getListenerExecutor()}. Toasters get one for
+ * each message using {@link AbstractToaster#listenerDispatcher()}.
+ * <p>
+ * Listeners of the same message always run one at a time, in the order they
+ * were dispatched, even when the executor has many threads. If there is no
+ * executor, listeners run straight away on the toaster's own thread.
+ * <p>
+ * A listener that runs for longer than
+ * {@link ToasterSettings#getSlowListenerThreshold()} is reported to
+ * {@link ToasterMetrics#slowListener(Class)}. When there is an executor, this
+ * happens while it is still running, so listeners that never return are
+ * reported too. Otherwise it is reported when it returns, so no timer is needed
+ * for each listener.
+ */
+public final class ListenerDispatcher {
+
+	private final Class<? extends Toaster> backend;
+	private final Executor executor;
+	private final TimeoutScheduler scheduler;
+	private final long slowThreshold;
+	private Queue<Runnable> pending;
+	private boolean running;
+
+	ListenerDispatcher(Class<? extends Toaster> backend, ToasterSettings settings) {
+		this.backend = backend;
+		this.executor = settings.getListenerExecutor();
+		this.scheduler = settings.getScheduler();
+		this.slowThreshold = settings.getSlowListenerThreshold();
+	}
+
+	/**
+	 * Dispatch a listener. When there is an executor, this returns straight away,
+	 * and the listener runs once any listeners of this message dispatched before
+	 * it have finished.
+	 * 
+	 * @param listener listener
+	 */
+	public void dispatch(Runnable listener) {
+		if (executor == null) {
+			runTimed(listener);
+			return;
+		}
+		synchronized (this) {
+			if (pending == null)
+				pending = new ArrayDeque<>();
+			pending.add(listener);
+			if (running)
+				return;
+			running = true;
+		}
+		try {
+			executor.execute(this::drain);
+		} catch (RuntimeException re) {
+			synchronized (this) {
+				running = false;
+				pending.clear();
+			}
+			throw re;
+		}
+	}
+
+	private void drain() {
+		while (true) {
+			Runnable listener;
+			synchronized (this) {
+				listener = pending.poll();
+				if (listener == null) {
+					running = false;
+					return;
+				}
+			}
+			try {
+				run(listener);
+			} catch (RuntimeException re) {
+				/* Keep going so later listeners of this message still run */
+				var thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, re);
+			}
+		}
+	}
+
+	private void runTimed(Runnable listener) {
+		if (slowThreshold <= 0) {
+			listener.run();
+			return;
+		}
+		var started = System.nanoTime();
+		try {
+			listener.run();
+		} finally {
+			if (System.nanoTime() - started > TimeUnit.MILLISECONDS.toNanos(slowThreshold))
+				ToasterFactory.getMetrics().slowListener(backend);
+		}
+	}
+
+	private void run(Runnable listener) {
+		var slow = slowThreshold > 0
+				? scheduler.schedule(() -> ToasterFactory.getMetrics().slowListener(backend), slowThreshold,
+						TimeUnit.MILLISECONDS)
+				: null;
+		try {
+			listener.run();
+		} finally {
+			if (slow != null)
+				slow.cancel();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TimeoutScheduler} with a deterministic clock, intended for tests.
+ * Time only moves forward when {@link #advance(long, TimeUnit)} is called, and
+ * any tasks that become due are then run on the calling thread (via their
+ * executor), in the order they are due.
+ */
+public class ManualTimeoutScheduler implements TimeoutScheduler {
+
+	private final class Entry implements Timeout, Comparable<Entry> {
+		private final Runnable task;
+		private final Executor executor;
+		private final long due;
+		private final long sequence;
+		private boolean done;
+
+		private Entry(Runnable task, Executor executor, long due, long sequence) {
+			this.task = task;
+			this.executor = executor;
+			this.due = due;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public boolean cancel() {
+			synchronized (ManualTimeoutScheduler.this) {
+				if (done)
+					return false;
+				done = true;
+				queue.remove(this);
+				return true;
+			}
+		}
+
+		@Override
+		public int compareTo(Entry o) {
+			var c = Long.compare(due, o.due);
+			return c == 0 ? Long.compare(sequence, o.sequence) : c;
+		}
+	}
+
+	private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+	private long now;
+	private long sequence;
+
+	@Override
+	public synchronized Timeout schedule(Runnable task, long delay, TimeUnit unit, Executor executor) {
+		var entry = new Entry(task, executor, now + unit.toNanos(Math.max(0, delay)), sequence++);
+		queue.add(entry);
+		return entry;
+	}
+
+	/**
+	 * Get the current time of this scheduler's clock. The clock starts at zero.
+	 * 
+	 * @param unit unit
+	 * @return current time
+	 */
+	public synchronized long now(TimeUnit unit) {
+		return unit.convert(now, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Get the number of tasks that are scheduled but not yet run or cancelled.
+	 * 
+	 * @return pending tasks
+	 */
+	public synchronized int pending() {
+		return queue.size();
+	}
+
+	/**
+	 * Move the clock forward, running any tasks that become due.
+	 * 
+	 * @param amount amount of time
+	 * @param unit   unit of amount
+	 */
+	public void advance(long amount, TimeUnit unit) {
+		long target;
+		synchronized (this) {
+			target = now + unit.toNanos(amount);
+		}
+		while (true) {
+			Entry entry;
+			synchronized (this) {
+				entry = queue.peek();
+				if (entry == null || entry.due > target) {
+					now = target;
+					return;
+				}
+				queue.poll();
+				entry.done = true;
+				now = entry.due;
+			}
+			entry.executor.execute(entry.task);
+		}
+	}
+
+	/**
+	 * Run all pending tasks, advancing the clock to the time the last one is due.
+	 */
+	public void runAll() {
+		long last;
+		synchronized (this) {
+			last = now;
+			for (var e : queue)
+				last = Math.max(last, e.due);
+			last -= now;
+		}
+		advance(last, TimeUnit.NANOSECONDS);
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * An {@link ExecutionPolicy} that delivers on virtual threads, or a bounded
+ * pool of daemon threads if they are not available, with a limit on the number
+ * of messages each backend delivers at the same time.
+ */
+final class OffloadExecutionPolicy implements ExecutionPolicy {
+
+	/**
+	 * The messages of a single backend, those over the limit waiting in order
+	 * until another finishes. Waiting messages do not occupy a thread.
+	 */
+	private final class Limiter {
+		private final Class<? extends Toaster> backend;
+		private final Queue<Runnable> waiting = new ArrayDeque<>();
+		private int inFlight;
+
+		private Limiter(Class<? extends Toaster> backend) {
+			this.backend = backend;
+		}
+
+		void submit(Runnable task) {
+			synchronized (this) {
+				if (inFlight >= maxInFlight) {
+					waiting.add(task);
+					ToasterFactory.getMetrics().queueDepth(backend, waiting.size());
+					return;
+				}
+				inFlight++;
+			}
+			start(task);
+		}
+
+		private void start(Runnable task) {
+			executor.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					next();
+				}
+			});
+		}
+
+		private void next() {
+			Runnable task;
+			synchronized (this) {
+				task = waiting.poll();
+				if (task == null) {
+					inFlight--;
+					return;
+				}
+				ToasterFactory.getMetrics().queueDepth(backend, waiting.size());
+			}
+			start(task);
+		}
+	}
+
+	private final Map<Class<? extends Toaster>, Limiter> limiters = new ConcurrentHashMap<>();
+	private final int maxInFlight;
+	private final Executor executor;
+	private final boolean virtual;
+
+	OffloadExecutionPolicy(int maxInFlight) {
+		if (maxInFlight < 1)
+			throw new IllegalArgumentException("Maximum in flight must be at least 1.");
+		this.maxInFlight = maxInFlight;
+		var executor = virtualThreadExecutor();
+		virtual = executor != null;
+		if (executor == null) {
+			var pool = new ThreadPoolExecutor(maxInFlight, maxInFlight, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+						var t = new Thread(r, "TwoSlicesDelivery");
+						t.setDaemon(true);
+						return t;
+					});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		this.executor = executor;
+	}
+
+	boolean isVirtual() {
+		return virtual;
+	}
+
+	@Override
+	public Slice execute(Class<? extends Toaster> backend, Supplier<Slice> delivery) {
+		var slice = new CompletableFuture<Slice>();
+		limiters.computeIfAbsent(backend, Limiter::new).submit(() -> {
+			try {
+				slice.complete(delivery.get());
+			} catch (RuntimeException | Error e) {
+				ToasterFactory.getMetrics().failed(backend, e.getClass());
+				slice.completeExceptionally(e);
+			}
+		});
+		return new FutureSlice(slice);
+	}
+
+	/* Executors.newVirtualThreadPerTaskExecutor() if this JDK has it */
+	private static Executor virtualThreadExecutor() {
+		try {
+			return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ToastInterceptor} that queues messages and delivers them in order of
+ * {@link Toast#priority()}, so that when a toaster is slow (for example
+ * spawning <strong>notify-send</strong>, or a GNTP round trip) and messages
+ * build up, an error does not wait behind every informational message before
+ * it.
+ * <p>
+ * Waiting messages age, gaining one level of priority for every aging interval
+ * they wait, so messages of a low priority cannot be starved by a constant
+ * stream of higher ones. It follows that a message only ever waits for those
+ * being delivered, those of the same or higher priority submitted before it,
+ * and those of a lower priority that had already been waiting for an aging
+ * interval longer per level, giving a bound on how long an urgent message
+ * waits.
+ * <p>
+ * Messages are delivered by at most <i>concurrency</i> daemon threads, and
+ * {@link #intercept(Toast, Chain)} returns straight away. The dispatcher runs
+ * after all other interceptors. It must be added to be used.
+ *
+ * <pre>
+ * ToasterFactory.addInterceptor(new PriorityDispatcher());
+ * </pre>
+ *
+ * @see BasicToastHint#PRIORITY
+ */
+public class PriorityDispatcher implements ToastInterceptor, Closeable {
+
+	/**
+	 * The default number of seconds a message must wait to gain one level of
+	 * priority.
+	 */
+	public final static int DEFAULT_AGING = 2;
+
+	private final static class Entry implements Comparable<Entry> {
+		private final Toast toast;
+		private final Chain chain;
+		private final CompletableFuture<Slice> slice = new CompletableFuture<>();
+		private final long rank;
+		private final long sequence;
+
+		private Entry(Toast toast, Chain chain, long rank, long sequence) {
+			this.toast = toast;
+			this.chain = chain;
+			this.rank = rank;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(Entry o) {
+			var c = Long.compare(o.rank, rank);
+			return c == 0 ? Long.compare(sequence, o.sequence) : c;
+		}
+	}
+
+	private final PriorityBlockingQueue<Entry> queue = new PriorityBlockingQueue<>();
+	private final AtomicLong sequence = new AtomicLong();
+	private final ExecutorService executor;
+	private final long aging;
+	private final long origin = System.nanoTime();
+
+	/**
+	 * Create a dispatcher that delivers one message at a time, with the default
+	 * aging interval.
+	 */
+	public PriorityDispatcher() {
+		this(1, DEFAULT_AGING, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Create a dispatcher.
+	 * 
+	 * @param concurrency maximum number of messages to deliver at the same time
+	 * @param aging       how long a message must wait to gain one level of
+	 *                    priority
+	 * @param unit        unit of aging
+	 */
+	public PriorityDispatcher(int concurrency, long aging, TimeUnit unit) {
+		if (concurrency < 1)
+			throw new IllegalArgumentException("Concurrency must be at least 1.");
+		if (aging < 1)
+			throw new IllegalArgumentException("Aging interval must be positive.");
+		this.aging = unit.toNanos(aging);
+		executor = Executors.newFixedThreadPool(concurrency, r -> {
+			var t = new Thread(r, "TwoSlicesDispatch");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Get the number of messages waiting to be delivered.
+	 * 
+	 * @return waiting messages
+	 */
+	public int waiting() {
+		return queue.size();
+	}
+
+	@Override
+	public int order() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public Slice intercept(Toast toast, Chain chain) {
+		var entry = new Entry(toast, chain, rank(toast.priority(), System.nanoTime() - origin),
+				sequence.getAndIncrement());
+		queue.add(entry);
+		var backend = chain.toaster().getClass();
+		ToasterFactory.getMetrics().queueDepth(backend, queue.size());
+		try {
+			executor.execute(this::deliverNext);
+		} catch (RejectedExecutionException ree) {
+			queue.remove(entry);
+			throw new ToasterException("Dispatcher is closed.", ree);
+		}
+		return new FutureSlice(entry.slice);
+	}
+
+	/**
+	 * Stop delivering messages. Any that are still waiting are discarded.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		Entry entry;
+		while ((entry = queue.poll()) != null) {
+			ToasterFactory.getMetrics().dropped(entry.chain.toaster().getClass());
+			entry.slice.complete(Slice.defaultSlice());
+		}
+	}
+
+	/*
+	 * Effective priority is priority + waited / aging, which for any two waiting
+	 * messages orders the same as priority * aging - enqueued, so the order does
+	 * not change while they wait and a priority queue can be used.
+	 */
+	long rank(int priority, long enqueued) {
+		try {
+			return Math.subtractExact(Math.multiplyExact(priority, aging), enqueued);
+		} catch (ArithmeticException ae) {
+			return priority < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+		}
+	}
+
+	private void deliverNext() {
+		/* Runs once per message, taking whichever is most urgent now */
+		var entry = queue.poll();
+		if (entry == null)
+			return;
+		var backend = entry.chain.toaster().getClass();
+		ToasterFactory.getMetrics().queueDepth(backend, queue.size());
+		try {
+			entry.slice.complete(entry.chain.proceed(entry.toast));
+		} catch (RuntimeException re) {
+			ToasterFactory.getMetrics().failed(backend, re.getClass());
+			entry.slice.completeExceptionally(re);
+		}
+	}
+}
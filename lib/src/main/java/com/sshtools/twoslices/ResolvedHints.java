@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The hints from a {@link ToasterSettings}, resolved once into a form that is
+ * quick to look up. The {@link BasicToastHint}s are merged from
+ * {@link ToasterSettings#getHints()} and the deprecated
+ * {@link ToasterSettings#getProperties()} into an {@link EnumMap}, so finding
+ * one is an array lookup rather than up to three hash lookups and the
+ * construction of a legacy key. Other {@link ToastHint}s are looked up in the
+ * settings as before.
+ * <p>
+ * Each lookup method takes the hints of an individual message, which override
+ * those in the settings. Typed methods are provided for the primitive hints, so
+ * defaults need not be boxed and values need not be cast by the caller.
+ * <p>
+ * Obtain an instance using {@link ToasterSettings#getResolvedHints()}, which
+ * resolves the hints again only when the settings hints or properties have
+ * changed.
+ */
+public final class ResolvedHints {
+
+	private final ToasterSettings settings;
+	private final Map<BasicToastHint, Object> basic = new EnumMap<>(BasicToastHint.class);
+
+	/* Versions of the settings maps this was resolved from */
+	final int hintsVersion;
+	final int propertiesVersion;
+
+	@SuppressWarnings("deprecation")
+	ResolvedHints(ToasterSettings settings, int hintsVersion, int propertiesVersion) {
+		this.settings = settings;
+		this.hintsVersion = hintsVersion;
+		this.propertiesVersion = propertiesVersion;
+		var properties = settings.getProperties();
+		if (!properties.isEmpty()) {
+			for (var hint : BasicToastHint.values()) {
+				var key = hint.toLegacyKey();
+				if (properties.containsKey(key))
+					basic.put(hint, properties.get(key));
+			}
+		}
+		for (var en : settings.getHints().entrySet()) {
+			if (en.getKey() instanceof BasicToastHint)
+				basic.put((BasicToastHint) en.getKey(), en.getValue());
+		}
+	}
+
+	/**
+	 * Get the value of a hint, or <code>null</code> if it is not set.
+	 * 
+	 * @param <V>   type
+	 * @param hints hints of the message, which override the settings
+	 * @param hint  hint
+	 * @return value
+	 */
+	public <V> V get(Map<ToastHint, Object> hints, ToastHint hint) {
+		return get(hints, hint, null);
+	}
+
+	/**
+	 * Get the value of a hint.
+	 * 
+	 * @param <V>          type
+	 * @param hints        hints of the message, which override the settings
+	 * @param hint         hint
+	 * @param defaultValue value to return if the hint is not set
+	 * @return value
+	 */
+	@SuppressWarnings({ "unchecked", "deprecation" })
+	public <V> V get(Map<ToastHint, Object> hints, ToastHint hint, V defaultValue) {
+		if (!hints.isEmpty() && hints.containsKey(hint))
+			return (V) hints.get(hint);
+		if (hint instanceof BasicToastHint) {
+			var basicHint = (BasicToastHint) hint;
+			return basic.containsKey(basicHint) ? (V) basic.get(basicHint) : defaultValue;
+		}
+		if (settings.getHints().containsKey(hint))
+			return (V) settings.getHints().get(hint);
+		var key = hint.toLegacyKey();
+		if (settings.getProperties().containsKey(key))
+			return (V) settings.getProperties().get(key);
+		return defaultValue;
+	}
+
+	/**
+	 * Get the value of a hint that is an {@link Integer} or other
+	 * {@link Number}.
+	 * 
+	 * @param hints        hints of the message, which override the settings
+	 * @param hint         hint
+	 * @param defaultValue value to return if the hint is not set
+	 * @return value
+	 */
+	public int getInt(Map<ToastHint, Object> hints, ToastHint hint, int defaultValue) {
+		Number val = get(hints, hint);
+		return val == null ? defaultValue : val.intValue();
+	}
+
+	/**
+	 * Get the value of a hint that is a {@link Long} or other {@link Number}.
+	 * 
+	 * @param hints        hints of the message, which override the settings
+	 * @param hint         hint
+	 * @param defaultValue value to return if the hint is not set
+	 * @return value
+	 */
+	public long getLong(Map<ToastHint, Object> hints, ToastHint hint, long defaultValue) {
+		Number val = get(hints, hint);
+		return val == null ? defaultValue : val.longValue();
+	}
+
+	/**
+	 * Get the value of a hint that is a {@link Boolean}.
+	 * 
+	 * @param hints        hints of the message, which override the settings
+	 * @param hint         hint
+	 * @param defaultValue value to return if the hint is not set
+	 * @return value
+	 */
+	public boolean getBoolean(Map<ToastHint, Object> hints, ToastHint hint, boolean defaultValue) {
+		Boolean val = get(hints, hint);
+		return val == null ? defaultValue : val;
+	}
+
+	/**
+	 * Get the value of a hint that is a {@link String}.
+	 * 
+	 * @param hints        hints of the message, which override the settings
+	 * @param hint         hint
+	 * @param defaultValue value to return if the hint is not set
+	 * @return value
+	 */
+	public String getString(Map<ToastHint, Object> hints, ToastHint hint, String defaultValue) {
+		String val = get(hints, hint);
+		return val == null ? defaultValue : val;
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules time based events for notification messages, such as expiring a
+ * message after its timeout. All toasters share a single scheduler (see
+ * {@link ToasterSettings#getScheduler()}), so no thread is needed per message.
+ * <p>
+ * Scheduled tasks are handed to an {@link Executor} when they are due. Toolkit
+ * based toasters use this to get back on to their own UI thread, e.g.
+ * <code>EventQueue::invokeLater</code>, <code>Display::asyncExec</code> or
+ * <code>Platform::runLater</code>.
+ * <p>
+ * For tests, {@link ManualTimeoutScheduler} provides a deterministic clock.
+ */
+public interface TimeoutScheduler {
+
+	/**
+	 * A handle to a scheduled task, allowing it to be cancelled.
+	 */
+	public interface Timeout {
+		/**
+		 * Cancel the task. If the task has not yet started running, it never will.
+		 * 
+		 * @return <code>true</code> if the task was cancelled before it ran
+		 */
+		boolean cancel();
+	}
+
+	/**
+	 * Get the default scheduler. This uses a single daemon thread, that is only
+	 * started when the first task is scheduled.
+	 * 
+	 * @return default scheduler
+	 */
+	public static TimeoutScheduler defaultScheduler() {
+		return DefaultTimeoutScheduler.get();
+	}
+
+	/**
+	 * Schedule a task to run after a delay. When due, the task will be passed to
+	 * the executor to run.
+	 * 
+	 * @param task     task
+	 * @param delay    delay
+	 * @param unit     unit of delay
+	 * @param executor executor to run task with when it is due
+	 * @return timeout handle
+	 */
+	Timeout schedule(Runnable task, long delay, TimeUnit unit, Executor executor);
+
+	/**
+	 * Schedule a task to run after a delay. When due, the task will be run on the
+	 * schedulers own thread, so it should be very short lived.
+	 * 
+	 * @param task  task
+	 * @param delay delay
+	 * @param unit  unit of delay
+	 * @return timeout handle
+	 */
+	default Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+		return schedule(task, delay, unit, Runnable::run);
+	}
+}
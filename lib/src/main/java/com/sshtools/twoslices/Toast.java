@@ -15,14 +15,81 @@
  */
 package com.sshtools.twoslices;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sshtools.twoslices.ToastBuilder.ToastAction;
+
 /**
  * Default entry point providing a number of simple methods for displaying a
  * notification message. For more control over the notification system used,
  * consider using {@link ToasterFactory} directly.
+ * <p>
+ * An instance of this class is an immutable snapshot of a {@link ToastBuilder},
+ * taken when {@link ToastBuilder#toast()} is called, and is what is passed to a
+ * {@link Toaster}. The builder may be reset and re-used as soon as
+ * {@link ToastBuilder#toast()} returns, whether or not the message has actually
+ * been shown yet, as toasters that show messages later only hold on to the
+ * snapshot. A title, content or image that was set using a supplier is
+ * obtained from the supplier when a toaster first asks for it.
  *
  * @see ToasterFactory
  */
-public class Toast {
+public final class Toast {
+
+	private final ToastType type;
+	/* Either a String, or a Lazy evaluated when the toaster asks for it */
+	final Object title;
+	final Object content;
+	private final String icon;
+	final Object image;
+	private final int timeout;
+	private final List<ToastAction> actions;
+	private final ToastAction defaultAction;
+	private final ToastActionListener closed;
+	private final Map<ToastHint, Object> hints;
+
+	/* For ToasterMetrics, see AbstractToaster.deferDelivery() */
+	final long submitted;
+
+	Toast(ToastBuilder builder, long submitted) {
+		this.type = builder.type();
+		this.title = builder.title;
+		this.content = builder.content;
+		this.icon = builder.icon();
+		this.image = builder.image;
+		this.timeout = builder.timeout();
+		this.actions = copyActions(builder.actions());
+		this.defaultAction = builder.defaultAction() == null ? null : new ToastAction(builder.defaultAction(), true);
+		this.closed = builder.closed();
+		this.hints = copyHints(builder.hints());
+		this.submitted = submitted;
+	}
+
+	Toast(Toast toast) {
+		this(toast, toast.submitted);
+	}
+
+	Toast(Toast toast, long submitted) {
+		this(toast, true, toast.title, toast.content, submitted);
+	}
+
+	Toast(Toast template, boolean image, Object title, Object content, long submitted) {
+		this.type = template.type;
+		this.title = title;
+		this.content = content;
+		this.icon = template.icon;
+		this.image = image ? template.image : null;
+		this.timeout = template.timeout;
+		this.actions = template.actions;
+		this.defaultAction = template.defaultAction;
+		this.closed = template.closed;
+		this.hints = template.hints;
+		this.submitted = submitted;
+	}
 
 	/**
 	 * Create a new {@link ToastBuilder}.
@@ -90,4 +157,142 @@ public class Toast {
 		}
 		return builder.toast();
 	}
+
+	/**
+	 * Get the type of toast.
+	 * 
+	 * @return type
+	 */
+	public ToastType type() {
+		return type;
+	}
+
+	/**
+	 * Get the title for this toast.
+	 * 
+	 * @return title
+	 */
+	public String title() {
+		return Lazy.value(title);
+	}
+
+	/**
+	 * Get the content for this toast.
+	 * 
+	 * @return content
+	 */
+	public String content() {
+		return Lazy.value(content);
+	}
+
+	/**
+	 * Get the icon for this toast.
+	 * 
+	 * @return icon name or path
+	 * @see ToastBuilder#icon(String)
+	 */
+	public String icon() {
+		return icon;
+	}
+
+	/**
+	 * Get the image for this toast.
+	 * 
+	 * @return image name or path
+	 * @see ToastBuilder#image(String)
+	 */
+	public String image() {
+		return Lazy.value(image);
+	}
+
+	/**
+	 * Get the timeout (in seconds) for this message. If <code>-1</code>, the
+	 * default from {@link ToasterSettings} is used. If <code>0</code>, the message
+	 * should be persistent.
+	 * 
+	 * @return timeout in seconds or zero for persistent
+	 */
+	public int timeout() {
+		return timeout;
+	}
+
+	/**
+	 * Get an unmodifiable list of all actions. The actions themselves cannot be
+	 * changed either, use {@link #toBuilder()} to create a modified copy.
+	 * 
+	 * @return actions
+	 */
+	public List<ToastAction> actions() {
+		return actions;
+	}
+
+	/**
+	 * Get the default action.
+	 * 
+	 * @return action
+	 */
+	public ToastAction defaultAction() {
+		return defaultAction;
+	}
+
+	/**
+	 * Get the listener invoked when the notification is closed.
+	 * 
+	 * @return closed listener
+	 */
+	public ToastActionListener closed() {
+		return closed;
+	}
+
+	/**
+	 * Get an unmodifiable map of all hints.
+	 * 
+	 * @return hints
+	 */
+	public Map<ToastHint, Object> hints() {
+		return hints;
+	}
+
+	/**
+	 * Get the priority of this message, either from the
+	 * {@link BasicToastHint#PRIORITY} hint, or the default for its
+	 * {@link #type()}.
+	 * 
+	 * @return priority
+	 */
+	public int priority() {
+		var p = hints.get(BasicToastHint.PRIORITY);
+		return p instanceof Number ? ((Number) p).intValue() : type.priority();
+	}
+
+	/**
+	 * Create a new builder with the same configuration as this toast, for
+	 * example to create a modified copy in a {@link ToastInterceptor}.
+	 * 
+	 * @return builder
+	 */
+	public ToastBuilder toBuilder() {
+		return new ToastBuilder(this);
+	}
+
+	/* Whether there is an image, without obtaining it from a supplier */
+	boolean hasImage() {
+		return image != null;
+	}
+
+	private static List<ToastAction> copyActions(List<ToastAction> actions) {
+		if (actions.isEmpty())
+			return Collections.emptyList();
+		var l = new ArrayList<ToastAction>(actions.size());
+		for (var a : actions)
+			l.add(new ToastAction(a, true));
+		return Collections.unmodifiableList(l);
+	}
+
+	private static Map<ToastHint, Object> copyHints(Map<ToastHint, Object> hints) {
+		if (hints.isEmpty())
+			return Collections.emptyMap();
+		/* Keeps null values, a hint explicitly set to null is still present */
+		return Collections.unmodifiableMap(new HashMap<>(hints));
+	}
 }
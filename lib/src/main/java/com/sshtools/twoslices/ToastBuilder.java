@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Preferred method to create a new toaster notification. Use
@@ -46,6 +47,7 @@ public class ToastBuilder {
 		private boolean input;
 		private String prompt;
 		private ToastReplyListener replyListener;
+		private boolean frozen;
 
 		ToastAction(String name) {
 			this(name, name);
@@ -62,6 +64,20 @@ public class ToastBuilder {
 			this.listener = listener;
 		}
 
+		ToastAction(ToastAction action) {
+			this(action, false);
+		}
+
+		/* A frozen copy is part of a Toast, and cannot be changed */
+		ToastAction(ToastAction action, boolean frozen) {
+			this(action.name, action.label, action.listener);
+			this.icon = action.icon;
+			this.input = action.input;
+			this.prompt = action.prompt;
+			this.replyListener = action.replyListener;
+			this.frozen = frozen;
+		}
+
 		/**
 		 * Get the icon for this action. The actual semantics of this string may vary
 		 * between platforms.
@@ -79,6 +95,7 @@ public class ToastBuilder {
 		 * @param icon icon
 		 */
 		public ToastAction icon(String icon) {
+			checkMutable();
 			this.icon = icon;
 			return this;
 		}
@@ -89,6 +106,7 @@ public class ToastBuilder {
 		 * @param label label
 		 */
 		public ToastAction label(String label) {
+			checkMutable();
 			this.label = label;
 			return this;
 		}
@@ -99,6 +117,7 @@ public class ToastBuilder {
 		 * @param listener listener
 		 */
 		public ToastAction listener(ToastActionListener listener) {
+			checkMutable();
 			this.listener = listener;
 			return this;
 		}
@@ -147,6 +166,7 @@ public class ToastBuilder {
 		 * @return this for chaining
 		 */
 		public ToastAction input(boolean input) {
+			checkMutable();
 			this.input = input;
 			return this;
 		}
@@ -167,6 +187,7 @@ public class ToastBuilder {
 		 * @return this for chaining
 		 */
 		public ToastAction prompt(String prompt) {
+			checkMutable();
 			this.prompt = prompt;
 			return this;
 		}
@@ -189,6 +210,7 @@ public class ToastBuilder {
 		 * @return this for chaining
 		 */
 		public ToastAction replyListener(ToastReplyListener replyListener) {
+			checkMutable();
 			this.replyListener = replyListener;
 			return this;
 		}
@@ -202,20 +224,51 @@ public class ToastBuilder {
 			return label == null ? name : label;
 		}
 
+		private void checkMutable() {
+			if (frozen)
+				throw new UnsupportedOperationException(
+						"The actions of a Toast cannot be changed, use Toast.toBuilder() to create a modified copy.");
+		}
+
 	}
 
+	/* Set by a toaster that records its own delivery, see AbstractToaster.deferDelivery() */
+	private final static ThreadLocal<boolean[]> DEFERRED = ThreadLocal.withInitial(() -> new boolean[1]);
+
 	private ToastType type = ToastType.INFO;
-	private String title;
-	private String content;
+	/* Either a String, or a Lazy when set using a Supplier */
+	Object title;
+	Object content;
 	private String icon;
 	private final List<ToastAction> actions = new ArrayList<>();
 	private ToastAction defaultAction;
 	private Toaster toaster;
 	private int timeout = -1;
-	private String image;
+	Object image;
 	private ToastActionListener closed;
 	private final Map<ToastHint, Object> hints = new HashMap<>();
-	
+
+	/**
+	 * Constructor
+	 */
+	public ToastBuilder() {
+	}
+
+	ToastBuilder(Toast toast) {
+		type = toast.type();
+		title = toast.title;
+		content = toast.content;
+		icon = toast.icon();
+		image = toast.image;
+		timeout = toast.timeout();
+		closed = toast.closed();
+		for (var a : toast.actions())
+			actions.add(new ToastAction(a));
+		if (toast.defaultAction() != null)
+			defaultAction = new ToastAction(toast.defaultAction());
+		hints.putAll(toast.hints());
+	}
+
 	/**
 	 * Reset everything except the toaster so builder can be re-used easily.
 	 * 
@@ -340,7 +393,7 @@ public class ToastBuilder {
 	 * @return icon name or path
 	 */
 	public String image() {
-		return image;
+		return Lazy.value(image);
 	}
 
 	/**
@@ -370,6 +423,20 @@ public class ToastBuilder {
 		this.image = image.toString();
 		return this;
 	}
+
+	/**
+	 * Set the image for this toast using a supplier that is called only when the
+	 * message is delivered, i.e. when the toaster first asks for the image. It
+	 * will be called at most once, and not at all if the message is never shown.
+	 * 
+	 * @param image supplier of icon name or path
+	 * @return this for chaining
+	 * @see #image(String)
+	 */
+	public ToastBuilder lazyImage(Supplier<String> image) {
+		this.image = new Lazy<>(image);
+		return this;
+	}
 	
 	/**
 	 * Get this title for this toast.
@@ -377,7 +444,7 @@ public class ToastBuilder {
 	 * @return title
 	 */
 	public String title() {
-		return title;
+		return Lazy.value(title);
 	}
 
 	/**
@@ -391,13 +458,26 @@ public class ToastBuilder {
 		return this;
 	}
 
+	/**
+	 * Set this title for this toast using a supplier that is called only when the
+	 * message is delivered, i.e. when the toaster first asks for the title. It
+	 * will be called at most once, and not at all if the message is never shown.
+	 * 
+	 * @param title supplier of title
+	 * @return this for chaining
+	 */
+	public ToastBuilder lazyTitle(Supplier<String> title) {
+		this.title = new Lazy<>(title);
+		return this;
+	}
+
 	/**
 	 * Get this content for this toast.
 	 * 
 	 * @return content
 	 */
 	public String content() {
-		return content;
+		return Lazy.value(content);
 	}
 
 	/**
@@ -411,6 +491,20 @@ public class ToastBuilder {
 		return this;
 	}
 
+	/**
+	 * Set this content for this toast using a supplier that is called only when
+	 * the message is delivered, i.e. when the toaster first asks for the content.
+	 * It will be called at most once, and not at all if the message is never
+	 * shown. This is useful when the content is expensive to create.
+	 * 
+	 * @param content supplier of content
+	 * @return this for chaining
+	 */
+	public ToastBuilder lazyContent(Supplier<String> content) {
+		this.content = new Lazy<>(content);
+		return this;
+	}
+
 	/**
 	 * Set a hint for this toast.
 	 * 
@@ -586,16 +680,93 @@ public class ToastBuilder {
 		return this;
 	}
 
+	/**
+	 * Create an immutable snapshot of the current configuration of this builder.
+	 * Later changes to the builder, including {@link #reset()}, do not affect the
+	 * snapshot.
+	 * 
+	 * @return toast
+	 */
+	public Toast build() {
+		return new Toast(this, 0);
+	}
+
 	/**
 	 * Trigger a new notification message based on the configuration in this
-	 * builder.
+	 * builder. The builder may be changed or re-used as soon as this method
+	 * returns.
 	 */
 	public Slice toast() {
-		if(toaster == null) {
-			return ToasterFactory.getFactory().toaster().toast(this);
+		var t = toaster == null ? ToasterFactory.getFactory().toaster() : toaster;
+		return deliver(t, new Toast(this, System.nanoTime()));
+	}
+
+	/**
+	 * Create a template from the configuration in this builder, for messages that
+	 * are sent many times with different parameters in the title and content.
+	 * See {@link ToastTemplate} for the placeholder syntax.
+	 * 
+	 * @return template
+	 */
+	public ToastTemplate template() {
+		return new ToastTemplate(this);
+	}
+
+	/* Pass a toast through any interceptors to a toaster */
+	static Slice deliver(Toaster t, Toast toast) {
+		return deliver(t, toast, ToasterFactory.interceptors());
+	}
+
+	/* Pass a toast to a toaster, recording its submission and delivery */
+	static Slice deliver(Toaster t, Toast toast, ToastInterceptor[] interceptors) {
+		var metrics = ToasterFactory.getMetrics();
+		var backend = t.getClass();
+		var submitted = toast.submitted;
+		metrics.submitted(backend);
+		try {
+			Slice slice;
+			if (interceptors.length == 0) {
+				slice = execute(t, toast);
+			} else {
+				slice = new InterceptorChain(interceptors, t, submitted).proceed(toast);
+			}
+			ToasterEvents.submit(backend, false, submitted);
+			return slice;
+		} catch (RuntimeException | Error e) {
+			metrics.failed(backend, e.getClass());
+			ToasterEvents.submit(backend, true, submitted);
+			throw e;
 		}
-		else {
-			return toaster.toast(this);
+	}
+
+	/*
+	 * Pass a toast to a toaster using its execution policy, recording delivery
+	 * unless the toaster deferred it
+	 */
+	static Slice execute(Toaster t, Toast toast) {
+		var policy = t instanceof AbstractToaster && ((AbstractToaster) t).configuration != null
+				? ((AbstractToaster) t).configuration.executionPolicy(t.getClass())
+				: null;
+		return policy == null ? show(t, toast) : policy.execute(t.getClass(), () -> show(t, toast));
+	}
+
+	private static Slice show(Toaster t, Toast toast) {
+		var deferred = DEFERRED.get();
+		/* Delivery may be nested, e.g. by a CompositeToaster using a direct executor */
+		var outer = deferred[0];
+		deferred[0] = false;
+		try {
+			var slice = t.toast(toast);
+			if (!deferred[0])
+				ToasterFactory.getMetrics().delivered(t.getClass(), System.nanoTime() - toast.submitted);
+			return slice;
+		} finally {
+			deferred[0] = outer;
 		}
 	}
+
+	/* See AbstractToaster.deferDelivery() */
+	static void deferDelivery() {
+		DEFERRED.get()[0] = true;
+	}
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs before a message reaches a {@link Toaster}, allowing behaviour such as
+ * filtering, enrichment, throttling or de-duplication to be added to all
+ * messages without wrapping the toaster. Interceptors are discovered using
+ * {@link java.util.ServiceLoader} in the same way as {@link ToasterService}, or
+ * may be added using {@link ToasterFactory#addInterceptor(ToastInterceptor)}.
+ * They run in {@link #order()}, for every message sent using
+ * {@link ToastBuilder#toast()} or a {@link ToastTemplate}.
+ * <p>
+ * An interceptor may pass the message on unchanged, pass on a different
+ * message (see {@link Toast#toBuilder()}), or not pass it on at all, in which
+ * case nothing is shown and it should return {@link Slice#defaultSlice()}. It
+ * may also pass it on later from another thread using
+ * {@link Chain#proceedLater(Toast, Executor)}.
+ * <p>
+ * When there are no interceptors, messages go straight to the toaster without
+ * any additional work.
+ */
+public interface ToastInterceptor {
+
+	/**
+	 * The rest of the interceptors, followed by the toaster.
+	 */
+	public interface Chain {
+
+		/**
+		 * Get the toaster the message will be delivered to.
+		 * 
+		 * @return toaster
+		 */
+		Toaster toaster();
+
+		/**
+		 * Pass a message on to the next interceptor, or to the toaster if there are
+		 * no more.
+		 * 
+		 * @param toast message
+		 * @return handle to notification message
+		 */
+		Slice proceed(Toast toast);
+
+		/**
+		 * Pass a message on to the next interceptor, or to the toaster if there are
+		 * no more, using an executor. The returned handle may be used straight away,
+		 * closing the message once it has been delivered if it has not already been.
+		 * 
+		 * @param toast    message
+		 * @param executor executor
+		 * @return handle to notification message
+		 */
+		Slice proceedLater(Toast toast, Executor executor);
+	}
+
+	/**
+	 * Get the order of this interceptor. Those with a lower order run first.
+	 * 
+	 * @return order
+	 */
+	default int order() {
+		return 0;
+	}
+
+	/**
+	 * Intercept a message.
+	 * 
+	 * @param toast message
+	 * @param chain rest of the chain, to pass the message on to
+	 * @return handle to notification message
+	 */
+	Slice intercept(Toast toast, Chain chain);
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A notification that is sent many times, differing only in parameters in its
+ * title and content, for example <code>"Build {name} failed in {duration}"</code>.
+ * Create one using {@link ToastBuilder#template()}, then call
+ * {@link #toast(Object...)} with the parameter values for each message.
+ * <p>
+ * The work that does not depend on the parameters is done once when the
+ * template is created. The {@link Toaster} is located, the title and content are
+ * parsed, and a {@link Toast} with the actions, hints and other attributes is
+ * created. If the toaster does not have the {@link Capability#IMAGES}
+ * capability, the image is left out. Nothing else is removed or prepared for a
+ * particular toaster. Each message then shares these, and only has its title
+ * and content filled in.
+ * <p>
+ * As the title and content must be parsed, any set using
+ * {@link ToastBuilder#lazyTitle(java.util.function.Supplier)} or
+ * {@link ToastBuilder#lazyContent(java.util.function.Supplier)} are evaluated
+ * when the template is created. An image set using
+ * {@link ToastBuilder#lazyImage(java.util.function.Supplier)} is still only
+ * evaluated when first asked for, and then shared by all messages.
+ * <p>
+ * A placeholder is a name in braces. Each distinct name is a parameter, the
+ * first to appear (in the title, then the content) being the first argument to
+ * {@link #toast(Object...)}, and so on. A name may be used more than once. Text
+ * in braces that is not a name, such as <code>{}</code> or <code>{ }</code>,
+ * is left as it is. Templates are immutable and may be used from any thread.
+ */
+public final class ToastTemplate {
+
+	private final Toaster toaster;
+	private final Toast toast;
+	private final boolean image;
+	private final List<String> parameters;
+	private final Object[] title;
+	private final Object[] content;
+
+	ToastTemplate(ToastBuilder builder) {
+		toaster = builder.toaster() == null ? ToasterFactory.getFactory().toaster() : builder.toaster();
+		toast = builder.build();
+		image = toaster.capabilities().contains(Capability.IMAGES);
+		var names = new ArrayList<String>();
+		title = parse(toast.title(), names);
+		content = parse(toast.content(), names);
+		parameters = Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * Get the toaster messages from this template are sent to.
+	 * 
+	 * @return toaster
+	 */
+	public Toaster toaster() {
+		return toaster;
+	}
+
+	/**
+	 * Get the names of the parameters, in the order their values should be passed
+	 * to {@link #toast(Object...)}.
+	 * 
+	 * @return parameter names
+	 */
+	public List<String> parameters() {
+		return parameters;
+	}
+
+	/**
+	 * Create a toast from this template without showing it.
+	 * 
+	 * @param args parameter values
+	 * @return toast
+	 * @throws IllegalArgumentException if fewer values than parameters are given
+	 */
+	public Toast build(Object... args) {
+		return build(args, 0);
+	}
+
+	/**
+	 * Show a notification message from this template.
+	 * 
+	 * @param args parameter values
+	 * @return handle to notification message
+	 * @throws IllegalArgumentException if fewer values than parameters are given
+	 * @throws ToasterException if there is a serious unrecoverable error.
+	 */
+	public Slice toast(Object... args) {
+		return ToastBuilder.deliver(toaster, build(args, System.nanoTime()));
+	}
+
+	private Toast build(Object[] args, long submitted) {
+		if (args.length < parameters.size())
+			throw new IllegalArgumentException(
+					String.format("Expected %d parameters %s, got %d.", parameters.size(), parameters, args.length));
+		return new Toast(toast, image, render(title, args), render(content, args), submitted);
+	}
+
+	/*
+	 * A parsed string is an array of literal String segments and Integer
+	 * parameter indexes. A string with no parameters is a single String segment,
+	 * used as is.
+	 */
+	private static Object[] parse(String text, List<String> names) {
+		if (text == null)
+			return null;
+		var segments = new ArrayList<Object>();
+		var literal = new StringBuilder();
+		var i = 0;
+		while (i < text.length()) {
+			var ch = text.charAt(i);
+			var end = ch == '{' ? placeholderEnd(text, i) : -1;
+			if (end == -1) {
+				literal.append(ch);
+				i++;
+			} else {
+				if (literal.length() > 0) {
+					segments.add(literal.toString());
+					literal.setLength(0);
+				}
+				var name = text.substring(i + 1, end);
+				var idx = names.indexOf(name);
+				if (idx == -1) {
+					idx = names.size();
+					names.add(name);
+				}
+				segments.add(idx);
+				i = end + 1;
+			}
+		}
+		if (literal.length() > 0 || segments.isEmpty())
+			segments.add(literal.toString());
+		return segments.toArray();
+	}
+
+	private static int placeholderEnd(String text, int start) {
+		var i = start + 1;
+		while (i < text.length() && Character.isJavaIdentifierPart(text.charAt(i)))
+			i++;
+		return i > start + 1 && i < text.length() && text.charAt(i) == '}' ? i : -1;
+	}
+
+	private static String render(Object[] segments, Object[] args) {
+		if (segments == null)
+			return null;
+		if (segments.length == 1 && segments[0] instanceof String)
+			return (String) segments[0];
+		var b = new StringBuilder();
+		for (var s : segments) {
+			if (s instanceof String)
+				b.append((String) s);
+			else
+				b.append(args[(Integer) s]);
+		}
+		return b.toString();
+	}
+}
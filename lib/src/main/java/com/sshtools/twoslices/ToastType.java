@@ -48,6 +48,24 @@ public enum ToastType {
 		return n;
 	}
 
+	/**
+	 * Get the default priority of messages of this type, used when there is no
+	 * {@link BasicToastHint#PRIORITY} hint. Errors have the highest priority,
+	 * followed by warnings, then everything else.
+	 * 
+	 * @return priority
+	 */
+	public int priority() {
+		switch (this) {
+		case ERROR:
+			return 3;
+		case WARNING:
+			return 2;
+		default:
+			return 1;
+		}
+	}
+
 	public String description() {
 		switch (this) {
 		case ERROR:
@@ -34,10 +34,29 @@ public interface Toaster {
 	 * Display a notification message. A handle to the notification message
 	 * (allowing programmatic closing etc) will be always be returned, but
 	 * the operations it provides may be always be supported.
+	 * <p>
+	 * The toast is immutable, so toasters that show the message later may
+	 * simply keep a reference to it.
+	 * 
+	 * @param toast toast
+	 * @return handle to notification message. 
+	 * @throws ToasterException if there is a serious unrecoverable error.
+	 */
+	Slice toast(Toast toast);
+
+	/**
+	 * Display a notification message using a snapshot of the current
+	 * configuration of a builder. The message is delivered in the same way as
+	 * {@link ToastBuilder#toast()}, so it passes through any interceptors, the
+	 * toaster's execution policy and metrics before {@link #toast(Toast)} is
+	 * called.
 	 * 
 	 * @param builder builder
 	 * @return handle to notification message. 
 	 * @throws ToasterException if there is a serious unrecoverable error.
+	 * @see #toast(Toast)
 	 */
-	Slice toast(ToastBuilder builder);
+	default Slice toast(ToastBuilder builder) {
+		return ToastBuilder.deliver(this, new Toast(builder, System.nanoTime()));
+	}
 }
@@ -0,0 +1,152 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import com.sshtools.twoslices.jfr.Recorder;
+
+/**
+ * Emits JDK Flight Recorder events for the notification lifecycle, so a
+ * recording can show where time was spent on a message. All events are in the
+ * <i>Two Slices</i> category and are disabled by default. Enable them in a
+ * recording's settings, e.g. <code>com.sshtools.twoslices.Delivery#enabled=true</code>.
+ * <ul>
+ * <li><code>com.sshtools.twoslices.Probe</code> - a {@link ToasterService} was
+ * tried by {@link ToasterFactory}.</li>
+ * <li><code>com.sshtools.twoslices.Submit</code> - a message was submitted to a
+ * toaster.</li>
+ * <li><code>com.sshtools.twoslices.Delivery</code> - a message was delivered, by
+ * one of the phases in this class.</li>
+ * <li><code>com.sshtools.twoslices.ImageLoad</code> - an image was decoded.</li>
+ * <li><code>com.sshtools.twoslices.Interaction</code> - the user invoked an
+ * action on a message, or it was closed.</li>
+ * </ul>
+ * If the <code>jdk.jfr</code> module is not available, all methods do nothing.
+ * Start times are values of {@link System#nanoTime()}.
+ */
+public final class ToasterEvents {
+
+	/**
+	 * Delivery by running an external process, e.g. <code>notify-send</code> or
+	 * <code>osascript</code>.
+	 */
+	public final static String PHASE_SPAWN = "spawn";
+
+	/**
+	 * Delivery by a DBus <code>Notify</code> call.
+	 */
+	public final static String PHASE_DBUS = "dbus-notify";
+
+	/**
+	 * Delivery by a GNTP request and response.
+	 */
+	public final static String PHASE_GNTP = "gntp";
+
+	/**
+	 * Delivery by passing a message to a toolkit UI thread and showing it there.
+	 */
+	public final static String PHASE_UI = "ui-hop";
+
+	/**
+	 * Interaction where an action was invoked.
+	 */
+	public final static String KIND_ACTION = "action";
+
+	/**
+	 * Interaction where the default action was invoked.
+	 */
+	public final static String KIND_DEFAULT_ACTION = "default-action";
+
+	/**
+	 * Interaction where the message was closed.
+	 */
+	public final static String KIND_CLOSED = "closed";
+
+	private final static boolean AVAILABLE = available();
+
+	private ToasterEvents() {
+	}
+
+	/**
+	 * Record a probe of a toaster service.
+	 *
+	 * @param service   service class
+	 * @param backend   toaster created or <code>null</code> if not supported
+	 * @param supported whether the toaster is supported
+	 * @param started   start time
+	 */
+	public static void probe(Class<?> service, Class<?> backend, boolean supported, long started) {
+		if (AVAILABLE)
+			Recorder.probe(service, backend, supported, started);
+	}
+
+	/**
+	 * Record the submission of a message to a toaster.
+	 *
+	 * @param backend toaster
+	 * @param failed  whether the toaster failed with an exception
+	 * @param started start time
+	 */
+	public static void submit(Class<?> backend, boolean failed, long started) {
+		if (AVAILABLE)
+			Recorder.submit(backend, failed, started);
+	}
+
+	/**
+	 * Record the delivery of a message.
+	 *
+	 * @param backend toaster
+	 * @param phase   phase, e.g. {@link #PHASE_DBUS}
+	 * @param started start time
+	 */
+	public static void delivery(Class<?> backend, String phase, long started) {
+		if (AVAILABLE)
+			Recorder.delivery(backend, phase, started);
+	}
+
+	/**
+	 * Record the decoding of an image.
+	 *
+	 * @param sourceWidth  width of source image
+	 * @param sourceHeight height of source image
+	 * @param subsampling  subsampling factor used
+	 * @param started      start time
+	 */
+	public static void image(int sourceWidth, int sourceHeight, int subsampling, long started) {
+		if (AVAILABLE)
+			Recorder.image(sourceWidth, sourceHeight, subsampling, started);
+	}
+
+	/**
+	 * Record an interaction with a message.
+	 *
+	 * @param backend toaster
+	 * @param kind    kind, e.g. {@link #KIND_ACTION}
+	 * @param action  name of action, or <code>null</code>
+	 */
+	public static void interaction(Class<?> backend, String kind, String action) {
+		if (AVAILABLE)
+			Recorder.interaction(backend, kind, action);
+	}
+
+	private static boolean available() {
+		try {
+			var eventClass = Class.forName("jdk.jfr.Event");
+			return ToasterEvents.class.getModule().canRead(eventClass.getModule());
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
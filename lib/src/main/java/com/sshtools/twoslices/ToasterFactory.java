@@ -15,6 +15,10 @@
  */
 package com.sshtools.twoslices;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.ServiceLoader;
 
@@ -54,8 +58,10 @@ public abstract class ToasterFactory {
 					lastPreferred = preferred;
 					Toaster first = null;
 					for (var toaster : ServiceLoader.load(ToasterService.class)) {
+						var started = System.nanoTime();
 						try {
 							var t = toaster.create(settings);
+							ToasterEvents.probe(toaster.getClass(), t.getClass(), true, started);
 							if (first == null) {
 								first = t;
 							}
@@ -68,6 +74,7 @@ public abstract class ToasterFactory {
 								break;
 							}
 						} catch (Exception | ExceptionInInitializerError | NoClassDefFoundError | NoSuchMethodError e) {
+							ToasterEvents.probe(toaster.getClass(), null, false, started);
 						}
 					}
 					if (instance == null)
@@ -83,6 +90,8 @@ public abstract class ToasterFactory {
 	private static ToasterSettings settings = new ToasterSettings();
 	private static ToasterFactory instance;
 	private static Object lock = new Object();
+	private static volatile ToasterMetrics metrics;
+	private static volatile ToastInterceptor[] interceptors;
 
 	/**
 	 * Get an instance of the toaster factory which is responsible for creating an
@@ -110,6 +119,105 @@ public abstract class ToasterFactory {
 		}
 	}
 
+	/**
+	 * Get the metrics that measurements from the notification pipeline are sent
+	 * to. If none have been set, the first {@link ToasterMetrics} found using
+	 * {@link ServiceLoader} is used, or {@link ToasterMetrics#NONE} if there are
+	 * none.
+	 * 
+	 * @return metrics
+	 */
+	public static ToasterMetrics getMetrics() {
+		var m = metrics;
+		if (m == null) {
+			synchronized (lock) {
+				m = metrics;
+				if (m == null) {
+					m = ToasterMetrics.NONE;
+					for (var found : ServiceLoader.load(ToasterMetrics.class)) {
+						m = found;
+						break;
+					}
+					metrics = m;
+				}
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Set the metrics that measurements from the notification pipeline are sent
+	 * to. Set to <code>null</code> to return to discovering metrics using
+	 * {@link ServiceLoader}.
+	 * 
+	 * @param metrics metrics
+	 */
+	public static void setMetrics(ToasterMetrics metrics) {
+		synchronized (lock) {
+			ToasterFactory.metrics = metrics;
+		}
+	}
+
+	/**
+	 * Get the interceptors that run before a message reaches a {@link Toaster},
+	 * in the order they run. Initially, these are all of the
+	 * {@link ToastInterceptor}s found using {@link ServiceLoader}.
+	 * 
+	 * @return interceptors
+	 */
+	public static List<ToastInterceptor> getInterceptors() {
+		return List.of(interceptors());
+	}
+
+	/**
+	 * Add an interceptor that runs before a message reaches a {@link Toaster}.
+	 * 
+	 * @param interceptor interceptor
+	 */
+	public static void addInterceptor(ToastInterceptor interceptor) {
+		synchronized (lock) {
+			var l = new ArrayList<>(Arrays.asList(interceptors()));
+			l.add(interceptor);
+			setInterceptors(l);
+		}
+	}
+
+	/**
+	 * Remove an interceptor, including one found using {@link ServiceLoader}.
+	 * 
+	 * @param interceptor interceptor
+	 */
+	public static void removeInterceptor(ToastInterceptor interceptor) {
+		synchronized (lock) {
+			var l = new ArrayList<>(Arrays.asList(interceptors()));
+			l.remove(interceptor);
+			setInterceptors(l);
+		}
+	}
+
+	/* Sorted interceptors, empty (and not allocated per message) if there are none */
+	static ToastInterceptor[] interceptors() {
+		var i = interceptors;
+		if (i == null) {
+			synchronized (lock) {
+				i = interceptors;
+				if (i == null) {
+					var l = new ArrayList<ToastInterceptor>();
+					for (var found : ServiceLoader.load(ToastInterceptor.class))
+						l.add(found);
+					i = setInterceptors(l);
+				}
+			}
+		}
+		return i;
+	}
+
+	private static ToastInterceptor[] setInterceptors(List<ToastInterceptor> l) {
+		/* Stable, so interceptors with the same order run in the order added */
+		l.sort(Comparator.comparingInt(ToastInterceptor::order));
+		return interceptors = l.toArray(new ToastInterceptor[0]);
+	}
+
 	/**
 	 * Set settings hints.
 	 * 
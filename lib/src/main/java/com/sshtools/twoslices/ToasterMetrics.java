@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+/**
+ * Receives measurements from the notification pipeline, allowing them to be
+ * passed on to an application's metrics system. An implementation is
+ * discovered using {@link java.util.ServiceLoader} in the same way as
+ * {@link ToasterService}, or may be set using
+ * {@link ToasterFactory#setMetrics(ToasterMetrics)}. If there is none, a
+ * no-op implementation is used.
+ * <p>
+ * All methods are passed primitives and the class of the {@link Toaster} (the
+ * backend), so recording does not allocate. Methods may be called from any
+ * thread, including toolkit UI threads, so implementations must be thread safe
+ * and should return quickly. All methods have empty default implementations.
+ */
+public interface ToasterMetrics {
+
+	/**
+	 * Metrics that record nothing.
+	 */
+	ToasterMetrics NONE = new ToasterMetrics() {
+	};
+
+	/**
+	 * A message has been submitted to a backend.
+	 *
+	 * @param backend backend
+	 */
+	default void submitted(Class<? extends Toaster> backend) {
+	}
+
+	/**
+	 * A message has been delivered, i.e. passed to the desktop's notification
+	 * service, or shown in a popup. For backends that show messages on a toolkit
+	 * UI thread, this is when the message is shown on that thread.
+	 *
+	 * @param backend      backend
+	 * @param latencyNanos nanoseconds from submission to delivery
+	 */
+	default void delivered(Class<? extends Toaster> backend, long latencyNanos) {
+	}
+
+	/**
+	 * A message could not be delivered because of an error.
+	 *
+	 * @param backend backend
+	 * @param cause   type of the error
+	 */
+	default void failed(Class<? extends Toaster> backend, Class<? extends Throwable> cause) {
+	}
+
+	/**
+	 * A message was discarded without being shown, for example because it was
+	 * closed before it could be shown.
+	 *
+	 * @param backend backend
+	 */
+	default void dropped(Class<? extends Toaster> backend) {
+	}
+
+	/**
+	 * A visible message was collapsed into a summary message to make room for a
+	 * new one.
+	 *
+	 * @param backend backend
+	 */
+	default void coalesced(Class<? extends Toaster> backend) {
+	}
+
+	/**
+	 * The number of messages waiting to be shown by a backend has changed.
+	 *
+	 * @param backend backend
+	 * @param depth   number of waiting messages
+	 */
+	default void queueDepth(Class<? extends Toaster> backend, int depth) {
+	}
+
+	/**
+	 * A message is now active, i.e. showing and able to be closed.
+	 *
+	 * @param backend backend
+	 */
+	default void opened(Class<? extends Toaster> backend) {
+	}
+
+	/**
+	 * An active message has been closed.
+	 *
+	 * @param backend backend
+	 */
+	default void closed(Class<? extends Toaster> backend) {
+	}
+
+	/**
+	 * A listener of a message has been running for longer than
+	 * {@link ToasterSettings#getSlowListenerThreshold()}. This is called while the
+	 * listener is still running, from the scheduler's thread.
+	 *
+	 * @param backend backend
+	 */
+	default void slowListener(Class<? extends Toaster> backend) {
+	}
+}
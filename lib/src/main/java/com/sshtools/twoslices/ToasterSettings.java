@@ -16,8 +16,9 @@
 package com.sshtools.twoslices;
 
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Allows some configuration of notification messages and their behaviour. These
@@ -41,10 +42,15 @@ public class ToasterSettings {
 	private URL defaultImage;
 	private SystemTrayIconMode systemTrayIconMode = SystemTrayIconMode.SHOW_DEFAULT_WHEN_ACTIVE;
 	private Position position;
-	private Map<ToastHint, Object> hints = new HashMap<>();
+	private final TrackedMap<ToastHint, Object> hints = new TrackedMap<>();
 	private String preferredToasterClassName = System.getProperty("twoslices.preferred");
+	private TimeoutScheduler scheduler = TimeoutScheduler.defaultScheduler();
+	private final Map<Class<? extends Toaster>, ExecutionPolicy> executionPolicies = new ConcurrentHashMap<>();
+	private Executor listenerExecutor;
+	private long slowListenerThreshold = 1000;
 	@Deprecated
-	private Map<String, Object> properties = new HashMap<>();
+	private final TrackedMap<String, Object> properties = new TrackedMap<>();
+	private volatile ResolvedHints resolvedHints;
 
 	public ToasterSettings() {
 		try {
@@ -83,6 +89,117 @@ public class ToasterSettings {
 		this.preferredToasterClassName = preferredToasterClassName;
 	}
 
+	/**
+	 * Get the scheduler used by toasters for time based events, such as hiding a
+	 * message when its timeout expires. By default, a single daemon thread shared
+	 * by all toasters is used.
+	 * 
+	 * @return scheduler
+	 */
+	public TimeoutScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * Set the scheduler used by toasters for time based events, such as hiding a
+	 * message when its timeout expires. By default, a single daemon thread shared
+	 * by all toasters is used. Tests may want to use a
+	 * {@link ManualTimeoutScheduler}.
+	 * 
+	 * @param scheduler scheduler
+	 * @return this instance for chaining
+	 */
+	public ToasterSettings setScheduler(TimeoutScheduler scheduler) {
+		this.scheduler = scheduler;
+		return this;
+	}
+
+	/**
+	 * Get the policy deciding which thread a backend delivers messages on. By
+	 * default, messages are delivered on the caller's thread.
+	 * 
+	 * @param backend class of toaster
+	 * @return execution policy
+	 */
+	public ExecutionPolicy getExecutionPolicy(Class<? extends Toaster> backend) {
+		var policy = executionPolicies.get(backend);
+		return policy == null ? ExecutionPolicy.callerThread() : policy;
+	}
+
+	/**
+	 * Set the policy deciding which thread a backend delivers messages on, for
+	 * example {@link ExecutionPolicy#offload(int)} for backends that block. By
+	 * default, messages are delivered on the caller's thread.
+	 * 
+	 * @param backend class of toaster
+	 * @param policy  execution policy, or <code>null</code> for the default
+	 * @return this instance for chaining
+	 */
+	public ToasterSettings setExecutionPolicy(Class<? extends Toaster> backend, ExecutionPolicy policy) {
+		if (policy == null)
+			executionPolicies.remove(backend);
+		else
+			executionPolicies.put(backend, policy);
+		return this;
+	}
+
+	/* The policy for a backend, or null to deliver on the caller's thread */
+	ExecutionPolicy executionPolicy(Class<? extends Toaster> backend) {
+		return executionPolicies.isEmpty() ? null : executionPolicies.get(backend);
+	}
+
+	/**
+	 * Get the executor used to run the listeners of messages, or
+	 * <code>null</code> (the default) to run them on whatever thread the toaster
+	 * receives the event on. This may be the D-Bus signal thread, a native
+	 * callback thread or a toolkit UI thread, which a slow listener would block.
+	 * 
+	 * @return listener executor
+	 * @see ListenerDispatcher
+	 */
+	public Executor getListenerExecutor() {
+		return listenerExecutor;
+	}
+
+	/**
+	 * Set the executor used to run the listeners of messages, or
+	 * <code>null</code> (the default) to run them on whatever thread the toaster
+	 * receives the event on. Listeners of the same message still run one at a
+	 * time, in order. Listeners that update a toolkit's UI should use its own
+	 * executor, e.g. <code>Platform::runLater</code>.
+	 * 
+	 * @param listenerExecutor listener executor
+	 * @return this instance for chaining
+	 */
+	public ToasterSettings setListenerExecutor(Executor listenerExecutor) {
+		this.listenerExecutor = listenerExecutor;
+		return this;
+	}
+
+	/**
+	 * Get the number of milliseconds a listener may run for before it is reported
+	 * to {@link ToasterMetrics#slowListener(Class)}. Defaults to 1000, zero
+	 * disables reporting.
+	 * 
+	 * @return slow listener threshold in milliseconds
+	 */
+	public long getSlowListenerThreshold() {
+		return slowListenerThreshold;
+	}
+
+	/**
+	 * Set the number of milliseconds a listener may run for before it is reported
+	 * to {@link ToasterMetrics#slowListener(Class)}. Defaults to 1000, zero
+	 * disables reporting.
+	 * 
+	 * @param slowListenerThreshold slow listener threshold in milliseconds
+	 * @return this instance for chaining
+	 */
+	public ToasterSettings setSlowListenerThreshold(long slowListenerThreshold) {
+		this.slowListenerThreshold = slowListenerThreshold;
+		return this;
+	}
+
 	/**
 	 * Get the generic properties. These are used to pass toaster specific
 	 * configuration.
@@ -107,6 +224,24 @@ public class ToasterSettings {
 		return hints;
 	}
 
+	/**
+	 * Get the {@link #getHints()} and {@link #getProperties()} resolved into a
+	 * form that is quick to look up, for use by toasters. The same instance is
+	 * returned until either is changed.
+	 * 
+	 * @return resolved hints
+	 */
+	public ResolvedHints getResolvedHints() {
+		var resolved = resolvedHints;
+		var hintsVersion = hints.version();
+		var propertiesVersion = properties.version();
+		if (resolved == null || resolved.hintsVersion != hintsVersion
+				|| resolved.propertiesVersion != propertiesVersion) {
+			resolvedHints = resolved = new ResolvedHints(this, hintsVersion, propertiesVersion);
+		}
+		return resolved;
+	}
+
 	/**
 	 * Get the application name hint. This may be used by some notifiers to display
 	 * the sending applications name.
@@ -159,7 +294,9 @@ public class ToasterSettings {
 	 * If you are using a specific {@link Toaster} implementation, such as
 	 * {@link BasicSWTToaster}, then you can provide a 'parent' that the notifier can use
 	 * for positioning and other inheritable properties. In the case of SWT, this
-	 * would be a {@link TrayItem} which the message can attach to.
+	 * would be a {@link TrayItem} which the message can attach to. For the D-Bus
+	 * toaster, this may be an existing <code>DBusConnection</code> to share,
+	 * rather than opening another.
 	 * 
 	 * @param parent parent
 	 * @return this instance for chaining
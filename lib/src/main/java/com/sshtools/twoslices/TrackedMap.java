@@ -0,0 +1,125 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link HashMap} backed map that counts modifications, so that anything
+ * derived from its contents (see {@link ResolvedHints}) can be cached until it
+ * changes. All changes, including those made through the key, value and entry
+ * views, increment the {@link #version()}.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class TrackedMap<K, V> extends AbstractMap<K, V> {
+
+	private final Map<K, V> map = new HashMap<>();
+	private final Set<Map.Entry<K, V>> entrySet = new EntrySet();
+	private volatile int version;
+
+	/**
+	 * Get the number of times this map has been modified.
+	 * 
+	 * @return version
+	 */
+	int version() {
+		return version;
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map.containsKey(key);
+	}
+
+	@Override
+	public V get(Object key) {
+		return map.get(key);
+	}
+
+	@Override
+	public V put(K key, V value) {
+		version++;
+		return map.put(key, value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		version++;
+		return map.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		version++;
+		map.clear();
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return entrySet;
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+		@Override
+		public Iterator<Map.Entry<K, V>> iterator() {
+			var it = map.entrySet().iterator();
+			return new Iterator<>() {
+				@Override
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+
+				@Override
+				public Map.Entry<K, V> next() {
+					var en = it.next();
+					return new SimpleEntry<>(en) {
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						public V setValue(V value) {
+							version++;
+							super.setValue(value);
+							return en.setValue(value);
+						}
+					};
+				}
+
+				@Override
+				public void remove() {
+					version++;
+					it.remove();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+	}
+}
@@ -18,22 +18,31 @@ package com.sshtools.twoslices.impl;
 import java.awt.AWTException;
 import java.awt.EventQueue;
 import java.awt.Image;
+import java.awt.RenderingHints;
 import java.awt.SystemTray;
 import java.awt.TrayIcon;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.File;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.imageio.ImageIO;
 
 import com.sshtools.twoslices.AbstractToaster;
+import com.sshtools.twoslices.BasicToastHint;
 import com.sshtools.twoslices.Capability;
+import com.sshtools.twoslices.ImageDecoder;
+import com.sshtools.twoslices.ListenerDispatcher;
 import com.sshtools.twoslices.Slice;
-import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.TimeoutScheduler.Timeout;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.ToastType;
 import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterEvents;
 import com.sshtools.twoslices.ToasterException;
 import com.sshtools.twoslices.ToasterService;
 import com.sshtools.twoslices.ToasterSettings;
@@ -45,8 +54,23 @@ import com.sshtools.twoslices.ToasterSettings.SystemTrayIconMode;
  */
 public class AWTToaster extends AbstractToaster implements ActionListener {
 
-	private Thread timer;
+	/**
+	 * Maximum number of pre-scaled tray images kept.
+	 */
+	private final static int IMAGE_CACHE_SIZE = 16;
+
+	private final Map<String, Image> images = new LinkedHashMap<>(IMAGE_CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+			return size() > IMAGE_CACHE_SIZE;
+		}
+	};
+
 	private TrayIcon trayIcon;
+	private boolean added;
+	private AWTSlice current;
 	
 	public static class Service implements ToasterService {
 		@Override
@@ -54,7 +78,56 @@ public class AWTToaster extends AbstractToaster implements ActionListener {
 			return new AWTToaster(settings);
 		}
 	}
-	
+
+	/**
+	 * A single message. Only the most recent message drives the tray icon, an
+	 * older one is considered closed as soon as it is replaced.
+	 */
+	private final class AWTSlice implements Slice {
+		private final Toast toast;
+		private final long submitted;
+		private final ListenerDispatcher listeners = listenerDispatcher();
+		private Timeout timer;
+		private volatile boolean closed;
+		private boolean done;
+		private boolean shown;
+
+		private AWTSlice(Toast toast, long submitted) {
+			this.toast = toast;
+			this.submitted = submitted;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+			closed = true;
+			if (EventQueue.isDispatchThread())
+				doClose();
+			else
+				EventQueue.invokeLater(this::doClose);
+		}
+
+		private void doClose() {
+			if (done)
+				return;
+			done = true;
+			closed = true;
+			if (timer != null) {
+				timer.cancel();
+				timer = null;
+			}
+			if (current == this) {
+				current = null;
+				idle();
+			}
+			if (shown)
+				metrics().closed(AWTToaster.this.getClass());
+			ToasterEvents.interaction(AWTToaster.this.getClass(), ToasterEvents.KIND_CLOSED, null);
+			if (toast.closed() != null)
+				listeners.dispatch(toast.closed()::action);
+		}
+	}
 
 	/**
 	 * Constructor
@@ -64,7 +137,7 @@ public class AWTToaster extends AbstractToaster implements ActionListener {
 	 */
 	public AWTToaster(ToasterSettings configuration) {
 		super(configuration);
-		capabilities.addAll(Arrays.asList(Capability.IMAGES));
+		capabilities.addAll(Arrays.asList(Capability.IMAGES, Capability.CLOSE));
 		try {
 			Class.forName("java.awt.SystemTray");
 			if (!hasTray())
@@ -75,95 +148,171 @@ public class AWTToaster extends AbstractToaster implements ActionListener {
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
-		if(!EventQueue.isDispatchThread()) {
-			EventQueue.invokeLater(() -> toast(builder));
-			return Slice.defaultSlice();
+	public Slice toast(Toast toast) {
+		var slice = new AWTSlice(toast, deferDelivery(toast));
+		if (EventQueue.isDispatchThread())
+			show(slice);
+		else
+			EventQueue.invokeLater(() -> {
+				try {
+					show(slice);
+				} catch (RuntimeException | Error e) {
+					/* Never reaches ToastBuilder, which records failures on the calling thread */
+					metrics().failed(getClass(), e.getClass());
+					throw e;
+				}
+			});
+		return slice;
+	}
+
+	private void show(AWTSlice slice) {
+		if (slice.closed) {
+			metrics().dropped(getClass());
+			return;
 		}
-			
-		var tray = SystemTray.getSystemTray();
-		var icon = builder.icon();
-		var type = builder.type();
-		var title = builder.title();
-		var content = builder.content();
-		var closed = builder.closed();
-		
+
+		var toast = slice.toast;
+		var icon = toast.icon();
+		var type = toast.type();
+		var title = toast.title();
+		var content = toast.content();
+
 		try {
+			var image = icon == null || icon.length() == 0 ? getTypeImage(type) : getIconImage(toast, icon);
 			if (trayIcon == null) {
 				if (configuration.getParent() != null) {
 					trayIcon = (TrayIcon) configuration.getParent();
-				} else if (icon== null || icon.length() == 0) {
-					trayIcon = new TrayIcon(getPlatformImage(getTypeImage(type)), title);
-					tray.add(trayIcon);
-				}
-				else {
-					trayIcon = new TrayIcon(getPlatformImage(ImageIO.read(new File(icon))), title);
-					tray.add(trayIcon);
+					trayIcon.setImage(image);
+					trayIcon.setToolTip(title);
+				} else {
+					trayIcon = new TrayIcon(image, title);
 				}
 				trayIcon.addActionListener(this);
 			} else {
-				if (icon == null || icon.length() == 0) {
-					trayIcon.setImage(getPlatformImage(getTypeImage(type)));
-				} else
-					trayIcon.setImage(getPlatformImage(ImageIO.read(new File(icon))));
+				trayIcon.setImage(image);
 				trayIcon.setToolTip(title);
-				if(timer != null)
-					timer.interrupt();
 			}
+			if (!added && configuration.getParent() == null) {
+				/* Added once, then only the image and tool tip change */
+				SystemTray.getSystemTray().add(trayIcon);
+				added = true;
+			}
+
+			var previous = current;
+			current = slice;
+			if (previous != null)
+				previous.doClose();
+
 			trayIcon.displayMessage(title, content, TrayIcon.MessageType.valueOf(type.name()));
-			timer = new Thread("AWTNotifierWait") {
-				@Override
-				public void run() {
-					try {
-						Thread.sleep(configuration.getTimeout() * 1000);
-						if(closed != null) {
-							closed.action();
-						}
-						timer = null;
-						if (configuration.getSystemTrayIconMode() != SystemTrayIconMode.SHOW_DEFAULT_ALWAYS) {
-							if (configuration.getParent() == null) {
-								tray.remove(trayIcon);
-							}
-							trayIcon = null;
-						}
-					} catch (InterruptedException ie) {
-						// New one coming in
-					}
-				}
-			};
-			timer.start();
+			slice.shown = true;
+			delivered(slice.submitted);
+			metrics().opened(getClass());
+			if (toast.timeout() != 0) {
+				slice.timer = configuration.getScheduler().schedule(() -> {
+					slice.timer = null;
+					slice.doClose();
+				}, toast.timeout() == -1 ? configuration.getTimeout() : toast.timeout(), TimeUnit.SECONDS,
+						EventQueue::invokeLater);
+			}
 		} catch (IOException ioe) {
 			throw new ToasterException(String.format("Failed to show toast for %s: %s", type, title), ioe);
 		} catch (AWTException e) {
 			throw new ToasterException(String.format("Failed to show toast for %s: %s", type, title), e);
 		}
-		return Slice.defaultSlice();
 	}
 
-	private Image getPlatformImage(Image image) throws IOException {
+	/**
+	 * Return the tray icon to its idle state once no message is active. Rather
+	 * than removing the icon from the tray, which is expensive and flickers on
+	 * some desktops, it shows either the default image or a blank image.
+	 */
+	private void idle() {
+		if (trayIcon == null || configuration.getParent() != null)
+			return;
+		try {
+			if (configuration.getSystemTrayIconMode() == SystemTrayIconMode.SHOW_DEFAULT_ALWAYS
+					&& configuration.getDefaultImage() != null) {
+				trayIcon.setImage(cachedImage("default:" + configuration.getDefaultImage(),
+						() -> ImageIO.read(configuration.getDefaultImage())));
+			} else {
+				trayIcon.setImage(getBlankImage());
+			}
+			trayIcon.setToolTip(configuration.getAppName());
+		} catch (IOException ioe) {
+			throw new ToasterException("Failed to set idle tray icon.", ioe);
+		}
+	}
+
+	private Image cachedImage(String key, ImageLoader loader) throws IOException {
+		var image = images.get(key);
+		if (image == null) {
+			image = scale(loader.load());
+			images.put(key, image);
+		}
+		return image;
+	}
+
+	/**
+	 * Scale an image to the platform tray icon size once, so the tray does not
+	 * have to rescale it every time it is shown.
+	 */
+	private Image scale(Image image) {
+		var sz = getPlatformIconSize();
+		if (image instanceof BufferedImage && image.getWidth(null) == sz && image.getHeight(null) == sz)
+			return image;
+		var scaled = new BufferedImage(sz, sz, BufferedImage.TYPE_INT_ARGB);
+		var g = scaled.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(image, 0, 0, sz, sz, null);
+		} finally {
+			g.dispose();
+		}
+		return scaled;
+	}
+
+	private Image getIconImage(Toast toast, String icon) throws IOException {
+		return cachedImage("icon:" + icon, () -> ImageDecoder.decode(icon, getPlatformIconSize(),
+				ImageDecoder.pixelBudget(hints().getLong(toast.hints(), BasicToastHint.MAX_IMAGE_PIXELS, 0))).image());
+	}
+
+	private int getPlatformIconSize() {
 		var osname = System.getProperty("os.name");
-		int sz = 48;
 		if (osname.toLowerCase().indexOf("windows") != -1)
-			sz = 16;
+			return 16;
 		else if (osname.toLowerCase().indexOf("linux") != -1)
-			sz = 24;
-		return image.getScaledInstance(sz, sz, Image.SCALE_SMOOTH);
+			return 24;
+		else
+			return 48;
+	}
+
+	private Image getBlankImage() throws IOException {
+		var osname = System.getProperty("os.name");
+		if (osname.toLowerCase().indexOf("windows") != -1)
+			return cachedImage("blank", () -> ImageIO.read(getClass().getResource("/images/blank-48.gif")));
+		else
+			return cachedImage("blank", () -> ImageIO.read(getClass().getResource("/images/blank-48.png")));
 	}
 
 	private Image getTypeImage(ToastType type) throws IOException {
 		if (configuration.getSystemTrayIconMode() == SystemTrayIconMode.HIDDEN) {
-			var osname = System.getProperty("os.name");
-			if (osname.toLowerCase().indexOf("windows") != -1)
-				return ImageIO.read(getClass().getResource("/images/blank-48.gif"));
-			else
-				return ImageIO.read(getClass().getResource("/images/blank-48.png"));
+			return getBlankImage();
 		} else if ((configuration.getSystemTrayIconMode() == SystemTrayIconMode.SHOW_DEFAULT_WHEN_ACTIVE
 				|| configuration.getSystemTrayIconMode() == SystemTrayIconMode.SHOW_DEFAULT_ALWAYS)
 				&& configuration.getDefaultImage() != null) {
-			return ImageIO.read(configuration.getDefaultImage());
-		} else
-			return ImageIO.read(getClass().getResource("/images/dialog-"
-					+ (type.equals(ToastType.NONE) ? ToastType.INFO : type).name().toLowerCase() + "-48.png"));
+			return cachedImage("default:" + configuration.getDefaultImage(),
+					() -> ImageIO.read(configuration.getDefaultImage()));
+		} else {
+			var name = (type.equals(ToastType.NONE) ? ToastType.INFO : type).name().toLowerCase();
+			return cachedImage("type:" + name,
+					() -> ImageIO.read(getClass().getResource("/images/dialog-" + name + "-48.png")));
+		}
+	}
+
+	@FunctionalInterface
+	private interface ImageLoader {
+		Image load() throws IOException;
 	}
 
 	private boolean hasTray() {
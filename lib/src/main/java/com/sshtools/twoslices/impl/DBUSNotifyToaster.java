@@ -15,6 +15,7 @@
  */
 package com.sshtools.twoslices.impl;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
@@ -22,6 +23,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -37,13 +39,16 @@ import org.freedesktop.dbus.types.UInt32;
 import org.freedesktop.dbus.types.Variant;
 
 import com.sshtools.twoslices.AbstractToaster;
+import com.sshtools.twoslices.BasicToastHint;
 import com.sshtools.twoslices.Capability;
+import com.sshtools.twoslices.ListenerDispatcher;
 import com.sshtools.twoslices.Slice;
 import com.sshtools.twoslices.ToastActionListener;
-import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.ToastBuilder.ToastAction;
 import com.sshtools.twoslices.ToastReplyListener;
 import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterEvents;
 import com.sshtools.twoslices.ToasterService;
 import com.sshtools.twoslices.ToasterSettings;
 
@@ -53,8 +58,14 @@ import uk.co.bithatch.nativeimage.annotations.TypeReflect;
 
 /**
  * Implementation for linux that uses the DBUS notification service.
+ * <p>
+ * By default, a new session bus connection is opened, and closed when the JVM
+ * exits. To share a connection the application already has, pass it as the
+ * parent (see {@link ToasterSettings#setParent(Object)}), in which case it is
+ * never closed by the toaster. Either way, {@link #close()} removes the
+ * toaster's signal handlers.
  */
-public class DBUSNotifyToaster extends AbstractToaster {
+public class DBUSNotifyToaster extends AbstractToaster implements Closeable {
 	
 	public static class Service implements ToasterService {
 		@Override
@@ -86,7 +97,7 @@ public class DBUSNotifyToaster extends AbstractToaster {
 			private String action;
 
 			public ActionInvoked(String path, UInt32 id, String action) throws DBusException {
-				super(path);
+				super(path, id, action);
 				this.id = id;
 				this.action = action;
 			}
@@ -101,7 +112,7 @@ public class DBUSNotifyToaster extends AbstractToaster {
 			private UInt32 reason;
 
 			public NotificationClosed(String path, UInt32 id, UInt32 reason) throws DBusException {
-				super(path);
+				super(path, id, reason);
 				this.id = id;
 				this.reason = reason;
 			}
@@ -120,7 +131,7 @@ public class DBUSNotifyToaster extends AbstractToaster {
 			private String text;
 
 			public NotificationReplied(String path, UInt32 id, String text) throws DBusException {
-				super(path);
+				super(path, id, text);
 				this.id = id;
 				this.text = text;
 			}
@@ -137,10 +148,32 @@ public class DBUSNotifyToaster extends AbstractToaster {
 
 	}
 
+	/**
+	 * Maximum number of notifications to track. Not all servers report when a
+	 * notification is closed, so beyond this the oldest are forgotten and their
+	 * actions will no longer be invoked.
+	 */
+	private final static int MAX_ACTIVE = 256;
+
 	private DBusConnection conn;
 	private Notifications notifications;
-	private Map<UInt32, ActiveNotification> actives = new HashMap<>();
+	@SuppressWarnings("serial")
+	private Map<UInt32, ActiveNotification> actives = new LinkedHashMap<>() {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<UInt32, ActiveNotification> eldest) {
+			if (size() > MAX_ACTIVE) {
+				eldest.getValue().deleteTempFiles();
+				metrics().closed(DBUSNotifyToaster.this.getClass());
+				return true;
+			}
+			return false;
+		}
+	};
 	private boolean inlineReplySupported;
+	private boolean sharedConnection;
+	private final List<AutoCloseable> handlers = new ArrayList<>();
+	private Thread shutdownHook;
+	private boolean released;
 
 	class ActiveNotification implements Slice {
 		List<ToastAction> actions;
@@ -148,6 +181,7 @@ public class DBUSNotifyToaster extends AbstractToaster {
 		UInt32 id;
 		ToastActionListener closed;
 		ToastReplyListener replyListener;
+		ListenerDispatcher listeners;
 		boolean destroyed;
 		Set<Path> tempImagePath = new LinkedHashSet<>();
 		
@@ -158,6 +192,16 @@ public class DBUSNotifyToaster extends AbstractToaster {
 				notifications.CloseNotification(id.intValue());
 			}
 		}
+
+		void deleteTempFiles() {
+			for (var p : tempImagePath) {
+				try {
+					Files.deleteIfExists(p);
+				} catch (IOException e) {
+				}
+			}
+			tempImagePath.clear();
+		}
 	}
 
 	/**
@@ -173,10 +217,12 @@ public class DBUSNotifyToaster extends AbstractToaster {
 		
 		capabilities.addAll(Arrays.asList(Capability.ACTIONS, Capability.CLOSE, Capability.DEFAULT_ACTION, Capability.IMAGES));
 		try {
-			conn = DBusConnectionBuilder.forSessionBus().build();
-
-			/* https://github.com/hypfvieh/dbus-java/issues/159 */
-//			conn.changeThreadCount((byte)1);
+			if (configuration.getParent() instanceof DBusConnection) {
+				conn = (DBusConnection) configuration.getParent();
+				sharedConnection = true;
+			} else {
+				conn = connectionBuilder(Boolean.TRUE.equals(getHint(BasicToastHint.DBUS_LEAN))).build();
+			}
 
 			notifications = conn.getRemoteObject("org.freedesktop.Notifications", "/org/freedesktop/Notifications",
 					Notifications.class);
@@ -191,66 +237,61 @@ public class DBUSNotifyToaster extends AbstractToaster {
 				/* server does not advertise capabilities; assume no inline reply */
 			}
 
-			conn.addSigHandler(Notifications.NotificationReplied.class, notifications, (s) -> {
+			handlers.add(conn.addSigHandler(Notifications.NotificationReplied.class, notifications, (s) -> {
 				ActiveNotification active;
 				synchronized (actives) {
 					active = actives.get(s.id);
 				}
 				if (active != null && active.replyListener != null) {
-					active.replyListener.reply(s.text);
+					var replyListener = active.replyListener;
+					active.listeners.dispatch(() -> replyListener.reply(s.text));
 				}
-			});
+			}));
 
-			conn.addSigHandler(Notifications.ActionInvoked.class, notifications, (s) -> {
+			handlers.add(conn.addSigHandler(Notifications.ActionInvoked.class, notifications, (s) -> {
 				ActiveNotification active = null;
 				synchronized (actives) {
 					active = actives.get(s.id);
 					if (active != null) {
 						actives.remove(s.id);
+						metrics().closed(getClass());
 					}
 				}
 				if (active != null) {
+					active.deleteTempFiles();
+					ToasterEvents.interaction(getClass(), s.action.equals("default") ? ToasterEvents.KIND_DEFAULT_ACTION
+							: ToasterEvents.KIND_ACTION, s.action);
 					if(s.action.equals("default") && active.defaultAction != null) {
-						active.defaultAction.listener().action();
+						active.listeners.dispatch(active.defaultAction.listener()::action);
 					}
 					else {
 						for (ToastAction l : active.actions) {
 							if (l.name().equals(s.action) && l.listener() != null) {
-								l.listener().action();
+								active.listeners.dispatch(l.listener()::action);
 							}
 						}
 					}
 					if(active.closed != null) {
-						active.closed.action();
+						active.listeners.dispatch(active.closed::action);
 					}
 				}
-			});
+			}));
 
-			conn.addSigHandler(Notifications.NotificationClosed.class, notifications, (s) -> {
+			handlers.add(conn.addSigHandler(Notifications.NotificationClosed.class, notifications, (s) -> {
 				synchronized (actives) {
 					ActiveNotification active = actives.get(s.id);
 					if (active != null) {
 						active.destroyed = true;
 						actives.remove(s.id);
-						for(var p : active.tempImagePath) {
-							try {
-								Files.delete(p);
-							}
-							catch(Exception e) {
-							}
-						}
+						metrics().closed(getClass());
+						ToasterEvents.interaction(getClass(), ToasterEvents.KIND_CLOSED, null);
+						active.deleteTempFiles();
 					}
 				}
-			});
+			}));
 
-			Runtime.getRuntime().addShutdownHook(new Thread() {
-				public void run() {
-					try {
-						conn.close();
-					} catch (IOException e) {
-					}
-				}
-			});
+			shutdownHook = new Thread(this::release, "TwoSlicesDBUSShutdown");
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
 		} catch (DBusException dbe) {
 			throw new UnsupportedOperationException(dbe);
 		} catch (RuntimeException dbe) {
@@ -258,15 +299,73 @@ public class DBUSNotifyToaster extends AbstractToaster {
 		}
 	}
 
+	static DBusConnectionBuilder connectionBuilder(boolean lean) {
+		var builder = DBusConnectionBuilder.forSessionBus();
+		if (lean) {
+			/*
+			 * No objects are exported and signals are handled in order, so one thread
+			 * of each kind is enough. changeThreadCount() cannot be used, see
+			 * https://github.com/hypfvieh/dbus-java/issues/159
+			 */
+			builder.receivingThreadConfig().withSignalThreadCount(1).withErrorHandlerThreadCount(1)
+					.withMethodCallThreadCount(1).withMethodReturnThreadCount(1);
+		}
+		return builder;
+	}
+
+	/**
+	 * Remove the toaster's signal handlers, and close the connection if it was
+	 * opened by the toaster. Messages that are still showing will no longer
+	 * invoke their listeners. A shared connection stays open.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException ise) {
+			/* Already shutting down, the hook will release */
+			return;
+		}
+		release();
+	}
+
+	private void release() {
+		synchronized (handlers) {
+			if (released)
+				return;
+			released = true;
+			for (var handler : handlers) {
+				try {
+					handler.close();
+				} catch (Exception e) {
+				}
+			}
+			handlers.clear();
+		}
+		synchronized (actives) {
+			for (var active : actives.values()) {
+				active.deleteTempFiles();
+				metrics().closed(getClass());
+			}
+			actives.clear();
+		}
+		if (!sharedConnection) {
+			try {
+				conn.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
 	@Override
-	public Slice toast(ToastBuilder builder) {
+	public Slice toast(Toast toast) {
 		var args = new ArrayList<String>();
 		Map<String, Variant<?>> hints = new HashMap<>();
 		List<String> actions = new ArrayList<>();
 
 		args.add("notify-send");
-		var icon = builder.icon();
-		var type = builder.type();
+		var icon = toast.icon();
+		var type = toast.type();
 		var tempImagePaths = new LinkedHashSet<Path>();
 
 		if (icon == null || icon.length() == 0) {
@@ -287,14 +386,14 @@ public class DBUSNotifyToaster extends AbstractToaster {
 		else {
 			icon = ensureImageLocalPath(icon, tempImagePaths).toAbsolutePath().toString();
 		}
-		var image = builder.image();
+		var image = toast.image();
 		if (image != null && image.length() > 0) {
 			hints.put("image-path", new Variant<String>(ensureImageLocalPath(image, tempImagePaths).toAbsolutePath().toString()));
 		}
-		var toastActions = builder.actions();
-		if(builder.defaultAction() != null) {
+		var toastActions = toast.actions();
+		if(toast.defaultAction() != null) {
 			actions.add("default");
-			actions.add(builder.defaultAction().displayName());
+			actions.add(toast.defaultAction().displayName());
 		}
 		ToastReplyListener replyListener = null;
 		for (var a : toastActions) {
@@ -313,20 +412,32 @@ public class DBUSNotifyToaster extends AbstractToaster {
 		}
 		var active = new ActiveNotification();
 		active.tempImagePath.addAll(tempImagePaths);
-		if (builder.timeout() == 0) {
+		if (toast.timeout() == 0) {
 			hints.put("urgency", new Variant<Byte>(Byte.valueOf((byte) 2)));
 		}
-		var timeout = (builder.timeout() == -1 ? configuration.getTimeout() : builder.timeout()) * 1000;
+		var timeout = (toast.timeout() == -1 ? configuration.getTimeout() : toast.timeout()) * 1000;
 		
-		active.id = notifications.Notify(configuration.getAppName(), new UInt32(0), icon == null ? "" : icon,
-				builder.title() == null ? "" : builder.title(), builder.content() == null ? "" : builder.content(),
-				actions, hints, timeout);
+		var started = System.nanoTime();
+		try {
+			active.id = notifications.Notify(configuration.getAppName(), new UInt32(0), icon == null ? "" : icon,
+					toast.title() == null ? "" : toast.title(), toast.content() == null ? "" : toast.content(),
+					actions, hints, timeout);
+		} catch (RuntimeException | Error e) {
+			/* Never tracked, so nothing else will delete them */
+			active.deleteTempFiles();
+			throw e;
+		}
+		ToasterEvents.delivery(getClass(), ToasterEvents.PHASE_DBUS, started);
 		active.actions = toastActions;
-		active.closed = builder.closed();
-		active.defaultAction = builder.defaultAction();
+		active.closed = toast.closed();
+		active.defaultAction = toast.defaultAction();
 		active.replyListener = replyListener;
+		active.listeners = listenerDispatcher();
 		
-		this.actives.put(active.id, active);
+		synchronized (actives) {
+			actives.put(active.id, active);
+		}
+		metrics().opened(getClass());
 		
 		return active;
 	}
@@ -350,7 +461,6 @@ public class DBUSNotifyToaster extends AbstractToaster {
 						in.transferTo(out);
 					}
 				}
-				tempImagePath.toFile().deleteOnExit();
 				tempFiles.add(tempImagePath);
 				return tempImagePath;
 			}
@@ -26,13 +26,17 @@ import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
 
 import com.sshtools.twoslices.AbstractToaster;
+import com.sshtools.twoslices.BasicToastHint;
 import com.sshtools.twoslices.Capability;
 import com.sshtools.twoslices.Slice;
-import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.ToastType;
 import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterEvents;
 import com.sshtools.twoslices.ToasterException;
 import com.sshtools.twoslices.ToasterService;
 import com.sshtools.twoslices.ToasterSettings;
@@ -52,6 +56,8 @@ public class GNTPToaster extends AbstractToaster {
 	
 	public final static int DEFAULT_PORT = 23053;
 
+	private final static Map<ToastType, File> typeFiles = new EnumMap<>(ToastType.class);
+
 	/**
 	 * Constructor
 	 * 
@@ -68,30 +74,51 @@ public class GNTPToaster extends AbstractToaster {
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
-		try (Socket socket = new Socket(InetAddress.getLocalHost(), DEFAULT_PORT)) {
+	public Slice toast(Toast toast) {
+		var started = System.nanoTime();
+		try (Socket socket = new Socket(InetAddress.getLocalHost(), port())) {
 			var out = socket.getOutputStream();
 			out.write(String.format("GNTP/1.0 %s %s\r\n", "NOTIFY", "NONE").getBytes("UTF-8"));
 			out.write(String.format("Application-Name: %s\r\n", configuration.getAppName()).getBytes("UTF-8"));
-			out.write(String.format("Notification-Name: %s\r\n", builder.type().name()).getBytes("UTF-8"));
-			out.write(String.format("Notification-Title: %s\r\n", builder.title()).getBytes("UTF-8"));
-			out.write(String.format("Notification-Text: %s\r\n", builder.content()).getBytes("UTF-8"));
-			String icon = builder.icon();
+			out.write(String.format("Notification-Name: %s\r\n", toast.type().name()).getBytes("UTF-8"));
+			out.write(String.format("Notification-Title: %s\r\n", toast.title()).getBytes("UTF-8"));
+			out.write(String.format("Notification-Text: %s\r\n", toast.content()).getBytes("UTF-8"));
+			String icon = toast.icon();
 			if (icon != null && icon.length() > 0) {
 				out.write(String.format("Notification-Icon: file://%s\r\n", new File(icon).toURI().getRawPath()).getBytes("UTF-8"));
 			}
 			out.write("\r\n".getBytes("UTF-8"));
 			out.flush();
 			readResponse(socket.getInputStream());
+			ToasterEvents.delivery(getClass(), ToasterEvents.PHASE_GNTP, started);
 			return Slice.defaultSlice();
 		} catch (Exception e) {
 			throw new ToasterException(e);
 		}
 	}
 
+	private int port() {
+		return getHint(BasicToastHint.GNTP_PORT, DEFAULT_PORT);
+	}
+
 	private File getFileForType(ToastType type) throws IOException {
+		/*
+		 * The icons are the same for every instance, so are only extracted once per
+		 * JVM rather than registering more files to delete on exit each time
+		 */
+		synchronized (typeFiles) {
+			var f = typeFiles.get(type);
+			if (f == null || !f.exists()) {
+				f = extractFileForType(type);
+				f.deleteOnExit();
+				typeFiles.put(type, f);
+			}
+			return f;
+		}
+	}
+
+	private File extractFileForType(ToastType type) throws IOException {
 		File f = File.createTempFile("two-slices", ".png");
-		f.deleteOnExit();
 		try (InputStream in = getClass().getResourceAsStream(
 				"/images/" + (type == null ? "idle-48.png" : ("dialog-" + type.name().toLowerCase() + "-48.png")))) {
 			try (FileOutputStream out = new FileOutputStream(f)) {
@@ -137,7 +164,7 @@ public class GNTPToaster extends AbstractToaster {
 	}
 
 	private void register() {
-		try (Socket socket = new Socket(InetAddress.getLocalHost(), DEFAULT_PORT)) {
+		try (Socket socket = new Socket(InetAddress.getLocalHost(), port())) {
 			OutputStream out = socket.getOutputStream();
 			out.write(String.format("GNTP/1.0 %s %s\r\n", "REGISTER", "NONE").getBytes("UTF-8"));
 			out.write(String.format("Application-Name: %s\r\n", configuration.getAppName()).getBytes("UTF-8"));
@@ -0,0 +1,61 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.impl;
+
+import java.io.IOException;
+
+import com.sshtools.twoslices.ImageDecoder;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Image loading shared by the JavaFX toasters.
+ */
+final class JavaFXImages {
+
+	private JavaFXImages() {
+	}
+
+	/**
+	 * Load an image, decoding with subsampling via {@link ImageDecoder} so the full
+	 * resolution image is never held in memory.
+	 *
+	 * @param url         URL of image
+	 * @param size        size the image will be displayed at, or zero for natural
+	 *                    size
+	 * @param pixelBudget maximum number of pixels to decode
+	 * @return image
+	 */
+	static Image load(String url, int size, long pixelBudget) {
+		try {
+			var decoded = ImageDecoder.decode(url, size, pixelBudget).image();
+			var width = decoded.getWidth();
+			var height = decoded.getHeight();
+			var image = new WritableImage(width, height);
+			image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(),
+					decoded.getRGB(0, 0, width, height, null, 0, width), 0, width);
+			return image;
+		} catch (IOException | NoClassDefFoundError e) {
+			/*
+			 * Format not supported by ImageIO or no java.desktop module, let the toolkit
+			 * decode at the requested size
+			 */
+			return size > 0 ? new Image(url, size, size, true, true, false) : new Image(url, false);
+		}
+	}
+}
@@ -0,0 +1,666 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.impl;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.sshtools.twoslices.AbstractToaster;
+import com.sshtools.twoslices.BasicToastHint;
+import com.sshtools.twoslices.Capability;
+import com.sshtools.twoslices.ImageDecoder;
+import com.sshtools.twoslices.ListenerDispatcher;
+import com.sshtools.twoslices.Slice;
+import com.sshtools.twoslices.TimeoutScheduler.Timeout;
+import com.sshtools.twoslices.ToastActionListener;
+import com.sshtools.twoslices.Toast;
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToastBuilder.ToastAction;
+import com.sshtools.twoslices.ToastHint;
+import com.sshtools.twoslices.ToastType;
+import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterEvents;
+import com.sshtools.twoslices.ToasterService;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.ToasterSettings.Position;
+
+import javafx.animation.FadeTransition;
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBase;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.stage.Popup;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * Fall-back notifier for when a native notification system cannot be located or
+ * used, and the JavaFX toolkit is running, but ControlsFX is not available.
+ * Popups are drawn using plain JavaFX controls. Popup windows are pooled and
+ * re-used, all share the same default stylesheet, and are stacked on each
+ * monitor, with older popups collapsed once {@link BasicToastHint#THRESHOLD}
+ * is reached.
+ */
+public class JavaFXPopupToaster extends AbstractToaster {
+
+	public static class Service implements ToasterService {
+		@Override
+		public Toaster create(ToasterSettings settings) {
+			return new JavaFXPopupToaster(settings);
+		}
+	}
+
+	private final static int TEXT_WIDTH = 320;
+	private final static int IMAGE_SIZE = 128;
+	private final static int PADDING = 16;
+	private final static int SPACING = 8;
+	private final static int POOL_SIZE = 2;
+	private final static int DEFAULT_THRESHOLD = 3;
+	private final static Duration FADE_TIME = Duration.millis(200);
+
+	/*
+	 * JavaFX parses a stylesheet once per URL and shares the result between
+	 * scenes, so every popup refers to the same URL.
+	 */
+	private final static String STYLESHEET = JavaFXPopupToaster.class.getResource("javafx-popup.css")
+			.toExternalForm();
+
+	private final Map<ToastType, Image> typeImages = new EnumMap<>(ToastType.class);
+	private final Deque<ToastPopup> pool = new ArrayDeque<>();
+	private final Map<Integer, PopupStack> stacks = new HashMap<>();
+	private int poolCapacity = POOL_SIZE;
+	private Stage hidden;
+	private int showing;
+
+	/**
+	 * Constructor
+	 *
+	 * @param configuration configuration
+	 */
+	public JavaFXPopupToaster(ToasterSettings configuration) {
+		super(configuration);
+		capabilities.addAll(Arrays.asList(Capability.ACTIONS, Capability.CLOSE, Capability.IMAGES));
+		try {
+			/* Fails if the application has not started the JavaFX toolkit */
+			Platform.runLater(() -> {
+			});
+		} catch (IllegalStateException ise) {
+			throw new UnsupportedOperationException("JavaFX toolkit is not running.", ise);
+		}
+	}
+
+	@Override
+	public Slice toast(Toast toast) {
+		var hints = hints();
+		var threshold = Math.max(1, hints.getInt(toast.hints(), BasicToastHint.THRESHOLD, DEFAULT_THRESHOLD));
+		var collapseMessage = hints.getString(toast.hints(), BasicToastHint.COLLAPSE_MESSAGE,
+				"Collapsed Notifications");
+		var monitor = hints.getInt(toast.hints(), BasicToastHint.MONITOR, -1);
+		var preempt = hints.getBoolean(toast.hints(), BasicToastHint.PREEMPT, false);
+		var submitted = deferDelivery(toast);
+		var slice = new PopupSlice(toast, monitor);
+		maybeRunLater(() -> {
+			poolCapacity = Math.max(poolCapacity, threshold + 1);
+			stacks.computeIfAbsent(monitor, k -> new PopupStack()).add(slice, threshold, collapseMessage, preempt, submitted);
+		});
+		return slice;
+	}
+
+	private ToastPopup acquirePopup() {
+		var popup = pool.poll();
+		return popup == null ? new ToastPopup() : popup;
+	}
+
+	private Window owner() {
+		if (configuration.getParent() instanceof Window)
+			return (Window) configuration.getParent();
+		if (hidden == null) {
+			/*
+			 * A popup needs a showing owner. This one is transparent, a single pixel in
+			 * size and placed outside of every screen, and is only shown while popups are
+			 * (see release())
+			 */
+			hidden = new Stage(StageStyle.UTILITY);
+			var scene = new Scene(new Group(), 1, 1);
+			scene.setFill(Color.TRANSPARENT);
+			hidden.setScene(scene);
+			hidden.setOpacity(0);
+			var screens = Screen.getScreens();
+			hidden.setX(screens.stream().mapToDouble(sc -> sc.getBounds().getMinX()).min().orElse(0) - 100);
+			hidden.setY(screens.stream().mapToDouble(sc -> sc.getBounds().getMinY()).min().orElse(0) - 100);
+		}
+		if (!hidden.isShowing())
+			hidden.show();
+		return hidden;
+	}
+
+	/* Hide the owner of the popups once none are showing */
+	private void release() {
+		if (--showing == 0 && hidden != null && configuration.getParent() == null)
+			hidden.hide();
+	}
+
+	private Image typeImage(ToastType type) {
+		if (type == null || type == ToastType.NONE)
+			return null;
+		return typeImages.computeIfAbsent(type, k -> new Image(
+				JavaFXPopupToaster.class.getResource("/images/dialog-" + k.name().toLowerCase() + "-48.png")
+						.toExternalForm()));
+	}
+
+	private Position calcPos() {
+		if (configuration.getPosition() == null) {
+			if (System.getProperty("os.name", "").indexOf("Mac OS X") > -1) {
+				return Position.TR;
+			} else
+				return Position.BR;
+		} else
+			return configuration.getPosition();
+	}
+
+	private static Rectangle2D screenBounds(int monitor) {
+		var screens = Screen.getScreens();
+		var screen = monitor >= 0 && monitor < screens.size() ? screens.get(monitor) : Screen.getPrimary();
+		return screen.getVisualBounds();
+	}
+
+	void maybeRunLater(Runnable r) {
+		if (Platform.isFxApplicationThread())
+			r.run();
+		else
+			Platform.runLater(r);
+	}
+
+	/**
+	 * A single message. The slice is attached to a pooled {@link ToastPopup}
+	 * while it is visible.
+	 */
+	private final class PopupSlice implements Slice {
+
+		private final String title;
+		private final ToastType type;
+		private final String image;
+		private final int timeout;
+		private final int monitor;
+		private final int priority;
+		private final Map<ToastHint, Object> hints;
+		private final ToastAction defaultAction;
+		private final List<ToastAction> actions;
+		private final ToastActionListener closed;
+		private final ListenerDispatcher listeners = listenerDispatcher();
+
+		private String content;
+		private volatile boolean isClosed;
+		private ToastPopup popup;
+		private PopupStack stack;
+		private double stackOffset;
+		private Timeout timer;
+
+		private PopupSlice(Toast toast, int monitor) {
+			this.title = toast.title();
+			this.content = toast.content();
+			this.type = toast.type();
+			this.image = toast.image();
+			this.timeout = toast.timeout();
+			this.monitor = monitor;
+			this.priority = toast.priority();
+			this.hints = toast.hints();
+			this.defaultAction = toast.defaultAction();
+			this.actions = toast.actions();
+			this.closed = toast.closed();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (isClosed)
+				return;
+			isClosed = true;
+			maybeRunLater(this::doClose);
+		}
+
+		void popup(ToastPopup popup) {
+			if (isClosed) {
+				popup.recycle();
+				return;
+			}
+			this.popup = popup;
+			popup.skin(this);
+			popup.show(this);
+			startTimer();
+		}
+
+		void defaultAction() {
+			ToasterEvents.interaction(JavaFXPopupToaster.this.getClass(), ToasterEvents.KIND_DEFAULT_ACTION, null);
+			if (defaultAction != null && defaultAction.listener() != null)
+				listeners.dispatch(defaultAction.listener()::action);
+		}
+
+		void action(int index) {
+			var action = actions.get(index);
+			ToasterEvents.interaction(JavaFXPopupToaster.this.getClass(), ToasterEvents.KIND_ACTION, action.displayName());
+			if (action.listener() != null)
+				listeners.dispatch(action.listener()::action);
+		}
+
+		void content(String content) {
+			this.content = content;
+			if (popup != null && !isClosed) {
+				popup.skin(this);
+				popup.moveTo(this);
+				if (timer != null)
+					timer.cancel();
+				startTimer();
+			}
+		}
+
+		void restack(double stackOffset) {
+			if (this.stackOffset == stackOffset)
+				return;
+			this.stackOffset = stackOffset;
+			if (popup != null && !isClosed)
+				popup.moveTo(this);
+		}
+
+		double height() {
+			return popup == null || isClosed ? 0 : popup.height;
+		}
+
+		private void startTimer() {
+			if (timeout == 0)
+				return;
+			timer = configuration.getScheduler().schedule(() -> {
+				try {
+					close();
+				} catch (IOException e) {
+				}
+			}, timeout == -1 ? configuration.getTimeout() : timeout, TimeUnit.SECONDS, JavaFXPopupToaster.this::maybeRunLater);
+		}
+
+		private void doClose() {
+			if (timer != null) {
+				timer.cancel();
+				timer = null;
+			}
+			if (popup != null) {
+				popup.recycle();
+				popup = null;
+			}
+			if (stack != null)
+				stack.removed(this);
+			ToasterEvents.interaction(JavaFXPopupToaster.this.getClass(), ToasterEvents.KIND_CLOSED, null);
+			if (closed != null)
+				listeners.dispatch(closed::action);
+		}
+
+		private void closeQuietly() {
+			try {
+				close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	/**
+	 * A re-usable popup window. All of the nodes are created once, and are
+	 * re-skinned for each message the popup shows.
+	 */
+	private final class ToastPopup {
+
+		private final Popup popup = new Popup();
+		private final BorderPane root = new BorderPane();
+		private final Label titleLabel = new Label();
+		private final Label contentLabel = new Label();
+		private final StackPane graphicPane = new StackPane();
+		private final ImageView imageView = new ImageView();
+		private final HBox actionsBox = new HBox(SPACING);
+		private final List<Button> actionButtons = new ArrayList<>();
+		private final FadeTransition fade = new FadeTransition(FADE_TIME, root);
+		private PopupSlice slice;
+		private double width;
+		private double height;
+
+		ToastPopup() {
+			popup.setAutoHide(false);
+			popup.setHideOnEscape(false);
+			popup.setAutoFix(false);
+			popup.getScene().getStylesheets().add(STYLESHEET);
+
+			titleLabel.getStyleClass().add("title");
+			titleLabel.setMaxWidth(Double.MAX_VALUE);
+			HBox.setHgrow(titleLabel, Priority.ALWAYS);
+
+			var closeButton = new Button("✕");
+			closeButton.getStyleClass().add("close-button");
+			closeButton.setFocusTraversable(false);
+			closeButton.setOnAction(e -> {
+				if (slice != null)
+					slice.closeQuietly();
+			});
+
+			var header = new HBox(SPACING, titleLabel, closeButton);
+			contentLabel.getStyleClass().add("content");
+			contentLabel.setWrapText(true);
+			graphicPane.getStyleClass().add("graphic");
+			imageView.setPreserveRatio(true);
+			actionsBox.getStyleClass().add("actions");
+
+			root.setTop(header);
+			root.setCenter(contentLabel);
+			root.setLeft(graphicPane);
+			root.setBottom(actionsBox);
+			root.setPrefWidth(TEXT_WIDTH);
+			root.setOnMouseClicked(e -> {
+				if (slice != null && !isButton(e.getTarget())) {
+					slice.defaultAction();
+					slice.closeQuietly();
+				}
+			});
+			popup.getContent().add(root);
+		}
+
+		void skin(PopupSlice slice) {
+			this.slice = slice;
+
+			var styleClass = root.getStyleClass();
+			styleClass.setAll("two-slices-popup");
+			if (slice.type != null && slice.type != ToastType.NONE)
+				styleClass.add(slice.type.name().toLowerCase());
+			if (Boolean.TRUE.equals(getHint(slice.hints, BasicToastHint.DARK)))
+				styleClass.add("dark");
+
+			var stylesheets = new ArrayList<String>();
+			stylesheets.add(STYLESHEET);
+			String css = getHint(slice.hints, BasicToastHint.STYLESHEET);
+			if (css != null)
+				stylesheets.add(css);
+			List<String> csss = getHint(slice.hints, BasicToastHint.STYLESHEETS);
+			if (csss != null)
+				stylesheets.addAll(csss);
+			var sceneStylesheets = popup.getScene().getStylesheets();
+			if (!sceneStylesheets.equals(stylesheets))
+				sceneStylesheets.setAll(stylesheets);
+			String style = getHint(slice.hints, BasicToastHint.STYLE);
+			root.setStyle(style == null ? "" : style);
+
+			titleLabel.setText(slice.title);
+			contentLabel.setText(slice.content);
+			skinGraphic(slice);
+			skinActions(slice);
+
+			root.applyCss();
+			width = root.prefWidth(-1);
+			height = root.prefHeight(width);
+			root.resize(width, height);
+		}
+
+		void show(PopupSlice slice) {
+			var location = location(slice);
+			root.setOpacity(0);
+			if (!popup.isShowing())
+				showing++;
+			popup.show(owner(), location.getMinX(), location.getMinY());
+			fade.setFromValue(0);
+			fade.setToValue(1);
+			fade.playFromStart();
+		}
+
+		void moveTo(PopupSlice slice) {
+			var location = location(slice);
+			popup.setX(location.getMinX());
+			popup.setY(location.getMinY());
+		}
+
+		void recycle() {
+			slice = null;
+			fade.stop();
+			if (popup.isShowing()) {
+				popup.hide();
+				release();
+			}
+			imageView.setImage(null);
+			graphicPane.getChildren().clear();
+			if (pool.size() < poolCapacity)
+				pool.push(this);
+		}
+
+		private boolean isButton(Object target) {
+			for (var node = target instanceof Node ? (Node) target : null; node != null && node != root; node = node
+					.getParent()) {
+				if (node instanceof ButtonBase)
+					return true;
+			}
+			return false;
+		}
+
+		private void skinGraphic(PopupSlice slice) {
+			Node graphic = null;
+			if (slice.image != null) {
+				var imageSize = hints().getInt(slice.hints, BasicToastHint.IMAGE_SIZE, IMAGE_SIZE);
+				var img = JavaFXImages.load(ensureURL(slice.image), imageSize,
+						ImageDecoder.pixelBudget(hints().getLong(slice.hints, BasicToastHint.MAX_IMAGE_PIXELS, 0)));
+				imageView.setImage(img);
+				if (imageSize > 0 && (img.getWidth() > imageSize || img.getHeight() > imageSize)) {
+					imageView.setFitWidth(imageSize);
+					imageView.setFitHeight(imageSize);
+				} else {
+					imageView.setFitWidth(0);
+					imageView.setFitHeight(0);
+				}
+				graphic = imageView;
+			} else {
+				@SuppressWarnings("unchecked")
+				var typeIconGenerator = (Function<ToastType, Node>) getHint(slice.hints,
+						BasicToastHint.TYPE_ICON_GENERATOR);
+				if (typeIconGenerator != null) {
+					graphic = typeIconGenerator.apply(slice.type);
+				} else {
+					var img = typeImage(slice.type);
+					if (img != null) {
+						imageView.setImage(img);
+						imageView.setFitWidth(0);
+						imageView.setFitHeight(0);
+						graphic = imageView;
+					}
+				}
+			}
+			if (graphic == null) {
+				graphicPane.getChildren().clear();
+				root.setLeft(null);
+			} else {
+				graphicPane.getChildren().setAll(graphic);
+				root.setLeft(graphicPane);
+			}
+		}
+
+		private void skinActions(PopupSlice slice) {
+			var actions = slice.actions;
+			while (actionButtons.size() < actions.size()) {
+				var index = actionButtons.size();
+				var button = new Button();
+				button.setOnAction(e -> {
+					var current = this.slice;
+					if (current != null) {
+						current.action(index);
+						current.closeQuietly();
+					}
+				});
+				actionButtons.add(button);
+			}
+			for (int i = 0; i < actionButtons.size(); i++) {
+				if (i < actions.size())
+					actionButtons.get(i).setText(actions.get(i).displayName());
+			}
+			actionsBox.getChildren().setAll(actionButtons.subList(0, actions.size()));
+			root.setBottom(actions.isEmpty() ? null : actionsBox);
+		}
+
+		private Rectangle2D location(PopupSlice slice) {
+			var bounds = screenBounds(slice.monitor);
+			double x, y;
+			switch (calcPos()) {
+			case TL:
+			case CL:
+			case BL:
+				x = bounds.getMinX() + PADDING;
+				break;
+			case T:
+			case C:
+			case B:
+				x = bounds.getMinX() + ((bounds.getWidth() - width) / 2);
+				break;
+			default:
+				x = bounds.getMaxX() - width - PADDING;
+				break;
+			}
+			switch (calcPos()) {
+			case TL:
+			case T:
+			case TR:
+				y = bounds.getMinY() + PADDING + slice.stackOffset;
+				break;
+			case CL:
+			case C:
+			case CR:
+				y = bounds.getMinY() + ((bounds.getHeight() - height) / 2) + slice.stackOffset;
+				break;
+			default:
+				y = bounds.getMaxY() - height - PADDING - slice.stackOffset;
+				break;
+			}
+			return new Rectangle2D(x, y, width, height);
+		}
+	}
+
+	/**
+	 * Lays out the visible popups on a single monitor as a stack. At most
+	 * <i>threshold</i> popups are shown, after which the oldest (or with
+	 * {@link BasicToastHint#PREEMPT}, the lowest priority) are closed to make
+	 * room, and a single counter popup shows how many messages were collapsed.
+	 */
+	private final class PopupStack {
+		private final List<PopupSlice> slices = new ArrayList<>();
+		private PopupSlice counter;
+		private int collapsed;
+
+		void add(PopupSlice slice, int threshold, String collapseMessage, boolean preempt, long submitted) {
+			var backend = JavaFXPopupToaster.this.getClass();
+			if (slice.isClosed) {
+				metrics().dropped(backend);
+				return;
+			}
+			while (slices.size() >= threshold) {
+				var oldest = slices.remove(victim(slice, preempt));
+				collapsed++;
+				metrics().coalesced(backend);
+				metrics().closed(backend);
+				oldest.closeQuietly();
+			}
+			layout();
+
+			slice.stack = this;
+			slice.stackOffset = nextOffset();
+			slices.add(slice);
+			slice.popup(acquirePopup());
+			delivered(submitted);
+			metrics().opened(backend);
+
+			if (collapsed > 0) {
+				var text = String.format("%d more", collapsed);
+				if (counter == null) {
+					var builder = new ToastBuilder().type(ToastType.NONE).title(collapseMessage).content(text);
+					for (var en : slice.hints.entrySet())
+						builder.hint(en.getKey(), en.getValue());
+					counter = new PopupSlice(builder.build(), slice.monitor);
+					counter.stack = this;
+					counter.stackOffset = nextOffset();
+					counter.popup(acquirePopup());
+				} else {
+					counter.content(text);
+				}
+			}
+			layout();
+		}
+
+		/*
+		 * The oldest popup, or when preempting, the oldest of those with the lowest
+		 * priority, as long as that is lower than the new popup's
+		 */
+		private int victim(PopupSlice slice, boolean preempt) {
+			var idx = 0;
+			if (preempt) {
+				for (int i = 1; i < slices.size(); i++) {
+					if (slices.get(i).priority < slices.get(idx).priority)
+						idx = i;
+				}
+				if (slices.get(idx).priority >= slice.priority)
+					return 0;
+			}
+			return idx;
+		}
+
+		void removed(PopupSlice slice) {
+			if (slice == counter) {
+				counter = null;
+				collapsed = 0;
+			} else if (slices.remove(slice)) {
+				metrics().closed(JavaFXPopupToaster.this.getClass());
+			} else {
+				return;
+			}
+			layout();
+		}
+
+		private double nextOffset() {
+			var offset = 0d;
+			for (var s : slices)
+				offset += s.height() + SPACING;
+			return offset;
+		}
+
+		private void layout() {
+			var offset = 0d;
+			for (var s : slices) {
+				s.restack(offset);
+				offset += s.height() + SPACING;
+			}
+			if (counter != null)
+				counter.restack(offset);
+		}
+	}
+}
@@ -28,10 +28,13 @@ import org.controlsfx.tools.Utils;
 import com.sshtools.twoslices.AbstractToaster;
 import com.sshtools.twoslices.BasicToastHint;
 import com.sshtools.twoslices.Capability;
+import com.sshtools.twoslices.ImageDecoder;
+import com.sshtools.twoslices.ListenerDispatcher;
 import com.sshtools.twoslices.Slice;
-import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.ToastType;
 import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterEvents;
 import com.sshtools.twoslices.ToasterService;
 import com.sshtools.twoslices.ToasterSettings;
 
@@ -41,7 +44,6 @@ import javafx.geometry.Pos;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.Scene;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.paint.Color;
@@ -128,13 +130,13 @@ public class JavaFXToaster extends AbstractToaster {
 	
 	class JavaFXSlice implements Slice {
 		
-		private String title;
-		private String content;
-		private boolean closed;
+		private volatile boolean closed;
+		private Popup popup;
 
-		JavaFXSlice(String title, String content) {
-			this.title = title;
-			this.content = content;
+		void shown(Popup popup) {
+			this.popup = popup;
+			if (closed && popup != null)
+				popup.hide();
 		}
 		
 		@Override
@@ -143,11 +145,16 @@ public class JavaFXToaster extends AbstractToaster {
 				return;
 			
 			closed = true;
-			findPopup(title, content).hide();
+			maybeRunLater(() -> {
+				if (popup != null)
+					popup.hide();
+			});
 		}
 		
 	}
 
+	private final static int IMAGE_SIZE = 256;
+
 	private Stage hidden;
 
 	/**
@@ -163,75 +170,59 @@ public class JavaFXToaster extends AbstractToaster {
 		} catch (ClassNotFoundException cnfe) {
 			throw new UnsupportedOperationException();
 		}
-
-		Stage.getWindows().addListener(new ListChangeListener<Window>() {
-			@Override
-			public void onChanged(Change<? extends Window> c) {
-				while (c.next()) {
-					for (Window w : c.getAddedSubList()) {
-						if (w instanceof Popup) {
-							Popup popup = (Popup) w;
-							Scene s = popup.getScene();
-							for (Node node : s.getRoot().getChildrenUnmodifiable()) {
-								if (node.getClass().getTypeName().startsWith(
-										"org.controlsfx.control.Notifications$NotificationPopupHandler")) {
-									String css = getHint(BasicToastHint.STYLESHEET);
-									if (css != null)
-										s.getStylesheets().add(css);
-									List<String> csss = getHint(BasicToastHint.STYLESHEETS);
-									if (csss != null)
-										s.getStylesheets().addAll(csss);
-									String style = getHint(BasicToastHint.STYLE);
-									if (style != null)
-										s.getRoot().setStyle(style);
-									return;
-								}
-							}
-						}
-					}
-				}
-			}
-		});
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
-		var slice = new JavaFXSlice(builder.title(), builder.content());
+	public Slice toast(Toast toast) {
+		var slice = new JavaFXSlice();
+		var listeners = listenerDispatcher();
+		var submitted = deferDelivery(toast);
 		maybeRunLater(() -> {
 			var n = Notifications.create();
-			var type = builder.type();
-			n.hideAfter(builder.timeout() == 0 ? Duration.INDEFINITE
-					: Duration.seconds((builder.timeout() == -1 ? configuration.getTimeout() : builder.timeout())));
-			n.title(builder.title());
-			n.text(builder.content());
+			var type = toast.type();
+			n.hideAfter(toast.timeout() == 0 ? Duration.INDEFINITE
+					: Duration.seconds((toast.timeout() == -1 ? configuration.getTimeout() : toast.timeout())));
+			n.title(toast.title());
+			n.text(toast.content());
 			n.threshold((Integer) getHint(BasicToastHint.THRESHOLD, 3),
-					Notifications.create().title((String) getHint(builder.hints(), BasicToastHint.COLLAPSE_MESSAGE,
+					Notifications.create().title((String) getHint(toast.hints(), BasicToastHint.COLLAPSE_MESSAGE,
 							"Collapsed Notifications")));
 			List<Action> as = new ArrayList<>();
-			for (var a : builder.actions()) {
+			for (var a : toast.actions()) {
 				var action = new Action(a.displayName(), (e) -> {
+					ToasterEvents.interaction(getClass(), ToasterEvents.KIND_ACTION, a.displayName());
 					if (a.listener() != null)
-						a.listener().action();
-					findPopup(builder.title(), builder.content()).hide();
-					if (builder.closed() != null)
-						builder.closed().action();
+						listeners.dispatch(a.listener()::action);
+					try {
+						slice.close();
+					} catch (IOException ioe) {
+					}
+					if (toast.closed() != null)
+						listeners.dispatch(toast.closed()::action);
 				});
 				as.add(action);
 			}
-			if (builder.image() != null) {
-				var url = ensureURL(builder.image());
+			if (toast.image() != null) {
+				var url = ensureURL(toast.image());
+				var imageSize = hints().getInt(toast.hints(), BasicToastHint.IMAGE_SIZE, IMAGE_SIZE);
 				/* TODO load image on different thread first? */
-				var iview = new ImageView(new Image(url, false));
+				var img = JavaFXImages.load(url, imageSize,
+						ImageDecoder.pixelBudget(hints().getLong(toast.hints(), BasicToastHint.MAX_IMAGE_PIXELS, 0)));
+				var iview = new ImageView(img);
 				iview.setPreserveRatio(true);
+				if (imageSize > 0 && (img.getWidth() > imageSize || img.getHeight() > imageSize)) {
+					iview.setFitWidth(imageSize);
+					iview.setFitHeight(imageSize);
+				}
 				var anchorPane = new AnchorPane(iview);
-				anchorPane.setMaxWidth(256);
-				anchorPane.setMaxHeight(256);
+				anchorPane.setMaxWidth(IMAGE_SIZE);
+				anchorPane.setMaxHeight(IMAGE_SIZE);
 				n.graphic(anchorPane);
 				type = ToastType.NONE;
 			}
 			else  {
 				@SuppressWarnings("unchecked")
-				var typeIconGenerator = (Function<ToastType, Node>)getHint(builder.hints(), BasicToastHint.TYPE_ICON_GENERATOR);
+				var typeIconGenerator = (Function<ToastType, Node>)getHint(toast.hints(), BasicToastHint.TYPE_ICON_GENERATOR);
 				if(typeIconGenerator != null) {
 					n.graphic(typeIconGenerator.apply(type));
 					type = ToastType.NONE;
@@ -242,8 +233,8 @@ public class JavaFXToaster extends AbstractToaster {
 				n.darkStyle();
 			n.position(calcPos());
 			n.onAction((e) -> {
-				if (builder.closed() != null)
-					builder.closed().action();
+				if (toast.closed() != null)
+					listeners.dispatch(toast.closed()::action);
 			});
 			if (configuration.getParent() == null) {
 				if (hidden == null && Utils.getWindow(null) == null) {
@@ -283,29 +274,57 @@ public class JavaFXToaster extends AbstractToaster {
 				}
 				if (hidden != null)
 					hidden.show();
-				showNotification(type, n);
 			} else {
 				n.owner(configuration.getParent());
-				showNotification(type, n);
 			}
+			slice.shown(showAndTrack(toast, type, n));
+			delivered(submitted);
 		});
 		return slice;
 	}
 	
-	private Popup findPopup(String title, String content) {
-		for (var w : Stage.getWindows()) {
-			if (w instanceof Popup) {
-				var popup = (Popup) w;
-				var s = popup.getScene();
-				for (var node : s.getRoot().getChildrenUnmodifiable()) {
-					if (node.getClass().getTypeName()
-							.startsWith("org.controlsfx.control.Notifications$NotificationPopupHandler")) {
-						return popup;
-					}
+	/**
+	 * Show the notification, capturing the popup window ControlsFX creates for it.
+	 * ControlsFX shows the popup synchronously, so only windows added during this
+	 * call are looked at, and the stylesheets and style hints are applied to that
+	 * popup alone.
+	 */
+	private Popup showAndTrack(Toast toast, ToastType type, Notifications n) {
+		var shown = new Popup[1];
+		ListChangeListener<Window> listener = c -> {
+			while (c.next()) {
+				for (var w : c.getAddedSubList()) {
+					if (w instanceof Popup)
+						shown[0] = (Popup) w;
 				}
 			}
+		};
+		var windows = Stage.getWindows();
+		windows.addListener(listener);
+		try {
+			showNotification(type, n);
+		} finally {
+			windows.removeListener(listener);
+		}
+		if (shown[0] != null)
+			applyStyle(toast, shown[0].getScene());
+		return shown[0];
+	}
+
+	private void applyStyle(Toast toast, Scene s) {
+		String css = getHint(toast.hints(), BasicToastHint.STYLESHEET);
+		if (css != null && !s.getStylesheets().contains(css))
+			s.getStylesheets().add(css);
+		List<String> csss = getHint(toast.hints(), BasicToastHint.STYLESHEETS);
+		if (csss != null) {
+			for (var c : csss) {
+				if (!s.getStylesheets().contains(c))
+					s.getStylesheets().add(c);
+			}
 		}
-		throw new IllegalStateException("No popup windows.");
+		String style = getHint(toast.hints(), BasicToastHint.STYLE);
+		if (style != null)
+			s.getRoot().setStyle(style);
 	}
 
 	private Pos calcPos() {
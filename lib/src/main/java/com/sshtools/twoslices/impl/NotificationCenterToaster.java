@@ -23,16 +23,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.sshtools.twoslices.AbstractToaster;
 import com.sshtools.twoslices.BasicToastHint;
 import com.sshtools.twoslices.Capability;
+import com.sshtools.twoslices.ListenerDispatcher;
 import com.sshtools.twoslices.Slice;
 import com.sshtools.twoslices.ToastActionListener;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.ToastBuilder;
 import com.sshtools.twoslices.ToastReplyListener;
 import com.sshtools.twoslices.ToastType;
@@ -892,21 +894,21 @@ public class NotificationCenterToaster extends AbstractToaster {
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
+	public Slice toast(Toast toast) {
 		var notification = Foundation.invoke(Foundation.getObjcClass("NSUserNotification"), "new");
-		if(Boolean.TRUE.equals(builder.hints().get(BasicToastHint.NO_TYPE_IN_TEXT)) || builder.type() == ToastType.NONE)
+		if(Boolean.TRUE.equals(toast.hints().get(BasicToastHint.NO_TYPE_IN_TEXT)) || toast.type() == ToastType.NONE)
 			Foundation.invoke(notification, "setTitle:",
-					Foundation.nsString(StringUtil.stripHtml(builder.title(), true).replace("%", "%%")));
+					Foundation.nsString(StringUtil.stripHtml(toast.title(), true).replace("%", "%%")));
 		else
 			Foundation.invoke(notification, "setTitle:",
-					Foundation.nsString(StringUtil.stripHtml(builder.type().name() + "." + builder.title(), true).replace("%", "%%")));
+					Foundation.nsString(StringUtil.stripHtml(toast.type().name() + "." + toast.title(), true).replace("%", "%%")));
 		Foundation.invoke(notification, "setInformativeText:",
-				Foundation.nsString(StringUtil.stripHtml(builder.content(), true).replace("%", "%%")));
+				Foundation.nsString(StringUtil.stripHtml(toast.content(), true).replace("%", "%%")));
 		
 		installDelegate();
 		var buttonActions = new ArrayList<ToastBuilder.ToastAction>();
 		ToastBuilder.ToastAction inputAction = null;
-		for (var a : builder.actions()) {
+		for (var a : toast.actions()) {
 			if (a.input() && inputAction == null)
 				inputAction = a;
 			else
@@ -931,9 +933,10 @@ public class NotificationCenterToaster extends AbstractToaster {
 		Foundation.invoke(notification, "setIdentifier:", Foundation.nsString(id));
 		var listeners = new ActiveListeners();
 		listeners.buttonActions = buttonActions;
-		listeners.defaultAction = builder.defaultAction();
+		listeners.defaultAction = toast.defaultAction();
 		listeners.replyListener = inputAction == null ? null : inputAction.replyListener();
-		listeners.closed = builder.closed();
+		listeners.closed = toast.closed();
+		listeners.dispatcher = listenerDispatcher();
 		listenersById.put(id, listeners);
 
 		final ID center = Foundation.invoke(Foundation.getObjcClass("NSUserNotificationCenter"),
@@ -955,7 +958,21 @@ public class NotificationCenterToaster extends AbstractToaster {
 		};
 	}
 
-	private static final Map<String, ActiveListeners> listenersById = new ConcurrentHashMap<>();
+	/**
+	 * Maximum number of notifications to keep listeners for. The delegate is
+	 * only told when a notification is activated, not when it is dismissed, so
+	 * beyond this the oldest are forgotten.
+	 */
+	private static final int MAX_LISTENERS = 256;
+
+	@SuppressWarnings("serial")
+	private static final Map<String, ActiveListeners> listenersById = Collections
+			.synchronizedMap(new LinkedHashMap<>() {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, ActiveListeners> eldest) {
+					return size() > MAX_LISTENERS;
+				}
+			});
 	private static Callback delegateCallback;
 	private static ID delegateInstance;
 	private static final Object DELEGATE_LOCK = new Object();
@@ -965,6 +982,7 @@ public class NotificationCenterToaster extends AbstractToaster {
 		ToastBuilder.ToastAction defaultAction;
 		ToastReplyListener replyListener;
 		ToastActionListener closed;
+		ListenerDispatcher dispatcher;
 	}
 
 	private static void installDelegate() {
@@ -1004,23 +1022,24 @@ public class NotificationCenterToaster extends AbstractToaster {
 			switch (activationType) {
 			case 1: /* NSUserNotificationActivationTypeContentsClicked */
 				if (listeners.defaultAction != null && listeners.defaultAction.listener() != null)
-					listeners.defaultAction.listener().action();
+					listeners.dispatcher.dispatch(listeners.defaultAction.listener()::action);
 				break;
 			case 2: /* NSUserNotificationActivationTypeActionButtonClicked */
 				if (!listeners.buttonActions.isEmpty() && listeners.buttonActions.get(0).listener() != null)
-					listeners.buttonActions.get(0).listener().action();
+					listeners.dispatcher.dispatch(listeners.buttonActions.get(0).listener()::action);
 				break;
 			case 3: /* NSUserNotificationActivationTypeReplied */
 				if (listeners.replyListener != null) {
 					var text = Foundation.toStringViaUTF8(Foundation.invoke(Foundation.invoke(notification, "response"), "string"));
-					listeners.replyListener.reply(text == null ? "" : text);
+					var replyListener = listeners.replyListener;
+					listeners.dispatcher.dispatch(() -> replyListener.reply(text == null ? "" : text));
 				}
 				break;
 			default:
 				break;
 			}
 			if (listeners.closed != null)
-				listeners.closed.action();
+				listeners.dispatcher.dispatch(listeners.closed::action);
 		} catch (Throwable t) {
 			/* never let an exception cross the native callback boundary */
 		}
@@ -19,9 +19,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 
 import com.sshtools.twoslices.AbstractToaster;
+import com.sshtools.twoslices.BasicToastHint;
 import com.sshtools.twoslices.Slice;
-import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterEvents;
 import com.sshtools.twoslices.ToasterException;
 import com.sshtools.twoslices.ToasterService;
 import com.sshtools.twoslices.ToasterSettings;
@@ -47,7 +49,7 @@ public class NotifyToaster extends AbstractToaster {
 	 */
 	public NotifyToaster(ToasterSettings configuration) {
 		super(configuration);
-		var b = new ProcessBuilder("notify-send", "--help");
+		var b = new ProcessBuilder(command(), "--help");
 		try {
 			b.redirectErrorStream(true);
 			var p = b.start();
@@ -61,11 +63,11 @@ public class NotifyToaster extends AbstractToaster {
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
+	public Slice toast(Toast toast) {
 		var args = new ArrayList<String>();
-		args.add("notify-send");
-		var icon = builder.icon();
-		var type = builder.type();
+		args.add(command());
+		var icon = toast.icon();
+		var type = toast.type();
 		if (icon == null || icon.length() == 0) {
 			switch (type) {
 			case NONE:
@@ -86,21 +88,27 @@ public class NotifyToaster extends AbstractToaster {
 			args.add(icon);
 		}
 		args.add("-t");
-		args.add(String.valueOf((builder.timeout() == -1 ? configuration.getTimeout() : builder.timeout() ) * 1000));
-		var title = builder.title();
+		args.add(String.valueOf((toast.timeout() == -1 ? configuration.getTimeout() : toast.timeout() ) * 1000));
+		var title = toast.title();
 		if(title != null)
 			args.add(title);
-		args.add(builder.content());
+		args.add(toast.content());
 		try {
+			var started = System.nanoTime();
 			Process p = new ProcessBuilder(args).redirectErrorStream(true).start();
 			while ((p.getInputStream().read()) != -1)
 				;
 			if (p.waitFor() != 0)
 				throw new ToasterException(String.format("Failed to show toast for %s: %s", type, title));
+			ToasterEvents.delivery(getClass(), ToasterEvents.PHASE_SPAWN, started);
 		} catch (IOException | InterruptedException ioe) {
 			throw new ToasterException(String.format("Failed to show toast for %s: %s", type, title), ioe);
 		}
 		return Slice.defaultSlice();
 	}
 
+	private String command() {
+		return getHint(BasicToastHint.NOTIFY_SEND_PATH, "notify-send");
+	}
+
 }
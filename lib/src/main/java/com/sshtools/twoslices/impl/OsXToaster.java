@@ -19,8 +19,9 @@ import java.io.IOException;
 
 import com.sshtools.twoslices.AbstractToaster;
 import com.sshtools.twoslices.Slice;
-import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterEvents;
 import com.sshtools.twoslices.ToasterException;
 import com.sshtools.twoslices.ToasterService;
 import com.sshtools.twoslices.ToasterSettings;
@@ -55,24 +56,26 @@ public class OsXToaster extends AbstractToaster {
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
-		var t = textIcon(builder.type());
+	public Slice toast(Toast toast) {
+		var t = textIcon(toast.type());
 		var script = new StringBuilder();
 		script.append("display notification \"");
-		script.append(escape(builder.content()));
+		script.append(escape(toast.content()));
 		script.append("\" with title \"");
-		script.append(escape(t.length() == 0 ? builder.title() : (t + " " + builder.title())));
+		script.append(escape(t.length() == 0 ? toast.title() : (t + " " + toast.title())));
 		script.append("\"");
 		var b = new ProcessBuilder("osascript", "-e", script.toString());
 		try {
+			var started = System.nanoTime();
 			b.redirectErrorStream(true);
 			var p = b.start();
 			while ((p.getInputStream().read()) != -1)
 				;
 			if (p.waitFor() != 0)
 				throw new IOException("Failed to find osascript.");
+			ToasterEvents.delivery(getClass(), ToasterEvents.PHASE_SPAWN, started);
 		} catch (IOException | InterruptedException ioe) {
-			throw new ToasterException(String.format("Failed to show toast for %s: %s", builder.type(), builder.title()), ioe);
+			throw new ToasterException(String.format("Failed to show toast for %s: %s", toast.type(), toast.title()), ioe);
 		}
 		return Slice.defaultSlice();
 	}
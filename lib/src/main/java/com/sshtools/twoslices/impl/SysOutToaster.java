@@ -17,7 +17,7 @@ package com.sshtools.twoslices.impl;
 
 import com.sshtools.twoslices.AbstractToaster;
 import com.sshtools.twoslices.Slice;
-import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.Toaster;
 import com.sshtools.twoslices.ToasterService;
 import com.sshtools.twoslices.ToasterSettings;
@@ -45,8 +45,8 @@ public class SysOutToaster extends AbstractToaster {
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
-		System.out.println(String.format("[%1s] %s - %s", textIcon(builder.type()), builder.title(), builder.content()));
+	public Slice toast(Toast toast) {
+		System.out.println(String.format("[%1s] %s - %s", textIcon(toast.type()), toast.title(), toast.content()));
 		return Slice.defaultSlice();
 	}
 
@@ -0,0 +1,34 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Timespan;
+
+/**
+ * Fields common to all events. As some events span threads, the time taken is
+ * recorded as a field rather than using the event's own duration.
+ */
+abstract class BaseEvent extends Event {
+
+	@Label("Backend")
+	public Class<?> backend;
+
+	@Label("Time Taken")
+	@Timespan(Timespan.NANOSECONDS)
+	public long timeTaken;
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The user interacted with a message, or it was closed.
+ */
+@Name("com.sshtools.twoslices.Interaction")
+@Label("Toast Interaction")
+@Category("Two Slices")
+@Description("The user interacted with a message, or it was closed.")
+@Enabled(false)
+@StackTrace(false)
+public final class InteractionEvent extends BaseEvent {
+	@Label("Kind")
+	public String kind;
+
+	@Label("Action")
+	public String action;
+}
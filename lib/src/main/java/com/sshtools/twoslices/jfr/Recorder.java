@@ -0,0 +1,81 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.jfr;
+
+/**
+ * Creates and commits the events. Only used by
+ * {@link com.sshtools.twoslices.ToasterEvents} once it knows the
+ * <code>jdk.jfr</code> module is available. Each method checks the event is
+ * enabled before setting any fields, so when not recording, the event
+ * allocation is removed by the JIT.
+ */
+public final class Recorder {
+
+	private Recorder() {
+	}
+
+	public static void probe(Class<?> service, Class<?> backend, boolean supported, long started) {
+		var event = new ProbeEvent();
+		if (event.shouldCommit()) {
+			event.timeTaken = System.nanoTime() - started;
+			event.service = service;
+			event.backend = backend;
+			event.supported = supported;
+			event.commit();
+		}
+	}
+
+	public static void submit(Class<?> backend, boolean failed, long started) {
+		var event = new SubmitEvent();
+		if (event.shouldCommit()) {
+			event.timeTaken = System.nanoTime() - started;
+			event.backend = backend;
+			event.failed = failed;
+			event.commit();
+		}
+	}
+
+	public static void delivery(Class<?> backend, String phase, long started) {
+		var event = new DeliveryEvent();
+		if (event.shouldCommit()) {
+			event.timeTaken = System.nanoTime() - started;
+			event.backend = backend;
+			event.phase = phase;
+			event.commit();
+		}
+	}
+
+	public static void image(int sourceWidth, int sourceHeight, int subsampling, long started) {
+		var event = new ImageEvent();
+		if (event.shouldCommit()) {
+			event.timeTaken = System.nanoTime() - started;
+			event.sourceWidth = sourceWidth;
+			event.sourceHeight = sourceHeight;
+			event.subsampling = subsampling;
+			event.commit();
+		}
+	}
+
+	public static void interaction(Class<?> backend, String kind, String action) {
+		var event = new InteractionEvent();
+		if (event.shouldCommit()) {
+			event.backend = backend;
+			event.kind = kind;
+			event.action = action;
+			event.commit();
+		}
+	}
+}
@@ -13,6 +13,8 @@
  * License for the specific language governing permissions and limitations under
  * the License.
  */
+import com.sshtools.twoslices.ToastInterceptor;
+import com.sshtools.twoslices.ToasterMetrics;
 import com.sshtools.twoslices.ToasterService;
 
 module com.sshtools.twoslices {
@@ -20,6 +22,7 @@ module com.sshtools.twoslices {
 	
 	requires static java.desktop;
 	requires static java.scripting;
+	requires static jdk.jfr;
 	requires static org.freedesktop.dbus;
 
 	requires static javafx.controls;
@@ -30,6 +33,8 @@ module com.sshtools.twoslices {
 	exports com.sshtools.twoslices;
 
 	uses ToasterService;
+	uses ToasterMetrics;
+	uses ToastInterceptor;
 	
 	exports com.sshtools.twoslices.impl to org.freedesktop.dbus;
 	opens com.sshtools.twoslices.impl to com.sun.jna;
@@ -39,6 +44,7 @@ module com.sshtools.twoslices {
 			com.sshtools.twoslices.impl.DBUSNotifyToaster.Service,
 			com.sshtools.twoslices.impl.NotifyToaster.Service,
 			com.sshtools.twoslices.impl.JavaFXToaster.Service,
+			com.sshtools.twoslices.impl.JavaFXPopupToaster.Service,
 			com.sshtools.twoslices.impl.NotificationCenterToaster.Service,
 			com.sshtools.twoslices.impl.OsXToaster.Service,  
 			com.sshtools.twoslices.impl.AWTToaster.Service,
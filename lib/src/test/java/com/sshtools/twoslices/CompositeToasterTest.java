@@ -0,0 +1,148 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sshtools.twoslices.CompositeToaster.Route;
+
+/**
+ * Unit tests for {@link CompositeToaster}. These are pure and do not display a
+ * notification.
+ */
+public class CompositeToasterTest {
+
+	@After
+	public void resetMetrics() {
+		ToasterFactory.setMetrics(null);
+	}
+
+	@Test
+	public void routesByType() {
+		var local = new FakeToaster();
+		var remote = new FakeToaster();
+		var toaster = new CompositeToaster(new ToasterSettings()).add(local).add(remote,
+				Route.types(ToastType.ERROR)).executor(Runnable::run);
+		new ToastBuilder().toaster(toaster).type(ToastType.INFO).title("Info").toast();
+		new ToastBuilder().toaster(toaster).type(ToastType.ERROR).title("Error").toast();
+		assertEquals(List.of("Info", "Error"), local.titles());
+		assertEquals(List.of("Error"), remote.titles());
+	}
+
+	@Test
+	public void routesByHintAndCapability() {
+		var plain = new FakeToaster();
+		var rich = new FakeToaster(Capability.ACTIONS, Capability.IMAGES);
+		var toaster = new CompositeToaster(new ToasterSettings()).add(plain, Route.hint(BasicToastHint.DARK, true))
+				.add(rich, Route.supported()).executor(Runnable::run);
+		new ToastBuilder().toaster(toaster).title("Dark").hint(BasicToastHint.DARK, true).action("ok").toast();
+		new ToastBuilder().toaster(toaster).title("Light").image("/tmp/x.png").toast();
+		assertEquals(List.of("Dark"), plain.titles());
+		assertEquals(List.of("Dark", "Light"), rich.titles());
+	}
+
+	@Test
+	public void slowToasterDoesNotDelayOthers() throws Exception {
+		var fast = new FakeToaster();
+		var slow = new FakeToaster();
+		slow.gate = new CountDownLatch(1);
+		var toaster = new CompositeToaster(new ToasterSettings()).add(fast).add(slow).timeout(30, TimeUnit.SECONDS);
+		var started = System.nanoTime();
+		var slice = new ToastBuilder().toaster(toaster).title("Test").toast();
+		assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+		waitFor(() -> fast.titles().size() == 1);
+		assertEquals(List.of("Test"), fast.titles());
+
+		slice.close();
+		assertEquals(1, fast.closed.get());
+		assertEquals(0, slow.closed.get());
+
+		slow.gate.countDown();
+		waitFor(() -> slow.closed.get() == 1);
+		assertEquals(1, slow.closed.get());
+	}
+
+	@Test
+	public void toasterTimeoutOverridesComposite() throws Exception {
+		var metrics = new ToasterMetricsTest.RecordingMetrics();
+		ToasterFactory.setMetrics(metrics);
+		var broken = new FakeToaster();
+		broken.fail = true;
+		var slow = new FakeToaster();
+		slow.gate = new CountDownLatch(1);
+		var toaster = new CompositeToaster(new ToasterSettings()).add(broken)
+				.add(slow, Route.all(), 100, TimeUnit.MILLISECONDS).timeout(30, TimeUnit.SECONDS);
+		new ToastBuilder().toaster(toaster).title("Test").toast();
+		waitFor(() -> metrics.events.contains("failed:ToasterException"));
+		assertTrue(metrics.events.contains("failed:ToasterException"));
+		slow.gate.countDown();
+	}
+
+	@Test
+	public void listenersRunOncePerMessage() throws Exception {
+		var first = new FakeToaster();
+		var second = new FakeToaster();
+		var closed = new AtomicInteger();
+		var actioned = new AtomicInteger();
+		var toaster = new CompositeToaster(new ToasterSettings()).add(first).add(second).executor(Runnable::run);
+		var slice = new ToastBuilder().toaster(toaster).title("Test").action("ok", actioned::incrementAndGet)
+				.closed(closed::incrementAndGet).toast();
+		first.last.actions().get(0).listener().action();
+		second.last.actions().get(0).listener().action();
+		slice.close();
+		assertEquals(1, first.closed.get());
+		assertEquals(1, second.closed.get());
+		assertEquals(1, actioned.get());
+		assertEquals(1, closed.get());
+	}
+
+	@Test
+	public void failsOnlyWhenAllToastersFail() throws Exception {
+		var metrics = new ToasterMetricsTest.RecordingMetrics();
+		ToasterFactory.setMetrics(metrics);
+		var ok = new FakeToaster();
+		var broken = new FakeToaster();
+		broken.fail = true;
+		var toaster = new CompositeToaster(new ToasterSettings()).add(ok).add(broken).executor(Runnable::run);
+		new ToastBuilder().toaster(toaster).title("Test").toast();
+		assertEquals(List.of("Test"), ok.titles());
+		assertTrue(metrics.events.contains("delivered:CompositeToaster"));
+
+		ok.fail = true;
+		try {
+			new ToastBuilder().toaster(toaster).title("Test").toast();
+			fail("Expected exception.");
+		} catch (ToasterException te) {
+			assertEquals(1, te.getSuppressed().length);
+		}
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		for (var i = 0; i < 250 && !condition.getAsBoolean(); i++)
+			Thread.sleep(20);
+	}
+}
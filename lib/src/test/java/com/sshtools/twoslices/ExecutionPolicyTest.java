@@ -0,0 +1,72 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ExecutionPolicy}. These are pure and do not display a
+ * notification.
+ */
+public class ExecutionPolicyTest {
+
+	@After
+	public void resetMetrics() {
+		ToasterFactory.setMetrics(null);
+	}
+
+	@Test
+	public void deliversOnCallerByDefault() {
+		var toaster = new FakeToaster().blocking(1);
+		toaster.gate.countDown();
+		new ToastBuilder().toaster(toaster).title("Test").toast();
+		assertSame(Thread.currentThread(), toaster.thread);
+	}
+
+	@Test
+	public void limitsInFlightPerBackend() throws Exception {
+		var settings = new ToasterSettings().setExecutionPolicy(FakeToaster.class, ExecutionPolicy.offload(2));
+		var toaster = new FakeToaster(settings).blocking(5);
+		for (int i = 0; i < 5; i++)
+			new ToastBuilder().toaster(toaster).title("Test " + i).toast();
+		Thread.sleep(100);
+		assertEquals(2, toaster.inFlight.get());
+		toaster.gate.countDown();
+		assertTrue(toaster.done.await(10, TimeUnit.SECONDS));
+		assertEquals(2, toaster.maxInFlight.get());
+	}
+
+	@Test
+	public void recordsFailureInsteadOfThrowing() throws Exception {
+		var metrics = new ToasterMetricsTest.RecordingMetrics();
+		ToasterFactory.setMetrics(metrics);
+		var settings = new ToasterSettings().setExecutionPolicy(FakeToaster.class, ExecutionPolicy.offload(1));
+		var toaster = new FakeToaster(settings).blocking(1);
+		var slice = (FutureSlice) new ToastBuilder().toaster(toaster).title("fail").toast();
+		assertTrue(toaster.done.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 100 && !slice.isDone(); i++)
+			Thread.sleep(10);
+		assertTrue(slice.isFailed());
+		assertTrue(metrics.events.contains("failed:ToasterException"));
+	}
+}
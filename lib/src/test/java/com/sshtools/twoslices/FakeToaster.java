@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link Toaster} for unit tests, that records the messages it is given
+ * instead of displaying them. It can be made to fail, to block until released,
+ * or to defer delivery like a toaster that shows messages on a UI thread.
+ */
+class FakeToaster extends AbstractToaster {
+
+	final List<Toast> toasts = new CopyOnWriteArrayList<>();
+	final AtomicInteger closed = new AtomicInteger();
+	final AtomicInteger inFlight = new AtomicInteger();
+	final AtomicInteger maxInFlight = new AtomicInteger();
+	final CountDownLatch started = new CountDownLatch(1);
+	volatile Toast last;
+	volatile Thread thread;
+	/* When set, each message waits for this before it is delivered */
+	volatile CountDownLatch gate;
+	/* When set, counted down as each message finishes, delivered or not */
+	volatile CountDownLatch done;
+	/* Fail every message, as well as those titled "fail" */
+	volatile boolean fail;
+	/* Defer delivery until show() is called */
+	volatile boolean defer;
+	private volatile long submitted;
+
+	FakeToaster(Capability... capabilities) {
+		this(new ToasterSettings(), capabilities);
+	}
+
+	FakeToaster(ToasterSettings settings, Capability... capabilities) {
+		super(settings);
+		this.capabilities.addAll(List.of(capabilities));
+	}
+
+	@Override
+	public Slice toast(Toast toast) {
+		thread = Thread.currentThread();
+		started.countDown();
+		maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+		try {
+			/* The field, so a lazy title is not evaluated */
+			if (fail || "fail".equals(toast.title))
+				throw new ToasterException("Failed.");
+			var g = gate;
+			if (g != null && !g.await(10, TimeUnit.SECONDS))
+				throw new IllegalStateException("Not released.");
+			if (defer)
+				submitted = deferDelivery(toast);
+			last = toast;
+			toasts.add(toast);
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			inFlight.decrementAndGet();
+			var d = done;
+			if (d != null)
+				d.countDown();
+		}
+		return () -> {
+			closed.incrementAndGet();
+			if (toast.closed() != null)
+				toast.closed().action();
+		};
+	}
+
+	/**
+	 * Get the titles of the messages delivered so far. This evaluates any lazy
+	 * titles.
+	 *
+	 * @return titles
+	 */
+	List<String> titles() {
+		return toasts.stream().map(Toast::title).collect(Collectors.toList());
+	}
+
+	/**
+	 * Block each message until {@link #gate} is counted down, and count down
+	 * {@link #done} once the given number of messages have finished.
+	 *
+	 * @param expected number of messages expected
+	 * @return this for chaining
+	 */
+	FakeToaster blocking(int expected) {
+		gate = new CountDownLatch(1);
+		done = new CountDownLatch(expected);
+		return this;
+	}
+
+	/* Record the delivery of the last deferred message */
+	void show() {
+		delivered(submitted);
+	}
+}
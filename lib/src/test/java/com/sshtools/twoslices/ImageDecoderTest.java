@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ImageDecoder}. These are pure and do not display a
+ * notification.
+ */
+public class ImageDecoderTest {
+
+	@Test
+	public void subsamplingKeepsAtLeastTargetSize() {
+		assertEquals(1, ImageDecoder.subsampling(100, 50, 128, Long.MAX_VALUE));
+		assertEquals(1, ImageDecoder.subsampling(200, 50, 128, Long.MAX_VALUE));
+		assertEquals(46, ImageDecoder.subsampling(6000, 4000, 128, Long.MAX_VALUE));
+		assertTrue(6000 / ImageDecoder.subsampling(6000, 4000, 128, Long.MAX_VALUE) >= 128);
+	}
+
+	@Test
+	public void subsamplingEnforcesPixelBudget() {
+		var factor = ImageDecoder.subsampling(6000, 4000, 0, ImageDecoder.DEFAULT_PIXEL_BUDGET);
+		assertTrue(((6000 + factor - 1) / factor) * ((4000 + factor - 1) / factor) <= ImageDecoder.DEFAULT_PIXEL_BUDGET);
+		assertTrue(((6000 + factor - 2) / (factor - 1)) * ((4000 + factor - 2) / (factor - 1)) > ImageDecoder.DEFAULT_PIXEL_BUDGET);
+		assertEquals(1, ImageDecoder.subsampling(1, 1, 0, 0));
+	}
+
+	@Test
+	public void decodeDownsamplesToTarget() throws IOException {
+		var decoded = ImageDecoder.decode(getClass().getResource("/226520_flower-plant-garden.png"), 128, Long.MAX_VALUE);
+		assertEquals(512, decoded.sourceWidth());
+		assertEquals(288, decoded.sourceHeight());
+		assertTrue(decoded.downsampled());
+		assertEquals(128, decoded.image().getWidth());
+		assertEquals(72, decoded.image().getHeight());
+	}
+
+	@Test
+	public void decodeSmallImageUntouched() throws IOException {
+		var decoded = ImageDecoder.decode(getClass().getResource("/jadaptive-logo2.png").toExternalForm(), 128,
+				ImageDecoder.pixelBudget(null));
+		assertFalse(decoded.downsampled());
+		assertEquals(45, decoded.image().getWidth());
+	}
+}
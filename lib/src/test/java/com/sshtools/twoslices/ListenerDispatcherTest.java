@@ -0,0 +1,145 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ListenerDispatcher}. These are pure and do not display
+ * a notification.
+ */
+public class ListenerDispatcherTest {
+
+	@After
+	public void resetMetrics() {
+		ToasterFactory.setMetrics(null);
+	}
+
+	@Test
+	public void runsOnToasterThreadWithoutExecutor() {
+		var dispatcher = new ListenerDispatcher(FakeToaster.class, new ToasterSettings());
+		var thread = new Thread[1];
+		dispatcher.dispatch(() -> thread[0] = Thread.currentThread());
+		assertSame(Thread.currentThread(), thread[0]);
+	}
+
+	@Test
+	public void runsInOrderOneAtATime() throws Exception {
+		var pool = Executors.newFixedThreadPool(4);
+		try {
+			var dispatcher = new ListenerDispatcher(FakeToaster.class,
+					new ToasterSettings().setListenerExecutor(pool));
+			var order = new ArrayList<Integer>();
+			var running = new AtomicInteger();
+			var overlapped = new AtomicInteger();
+			var done = new CountDownLatch(100);
+			for (int i = 0; i < 100; i++) {
+				var idx = i;
+				dispatcher.dispatch(() -> {
+					if (running.incrementAndGet() > 1)
+						overlapped.incrementAndGet();
+					synchronized (order) {
+						order.add(idx);
+					}
+					running.decrementAndGet();
+					done.countDown();
+				});
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+			assertEquals(0, overlapped.get());
+			for (int i = 0; i < 100; i++)
+				assertEquals(i, order.get(i).intValue());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void failingListenerDoesNotStopOthers() throws Exception {
+		var pool = Executors.newSingleThreadExecutor(r -> {
+			var t = new Thread(r);
+			t.setUncaughtExceptionHandler((th, e) -> {
+			});
+			return t;
+		});
+		try {
+			var dispatcher = new ListenerDispatcher(FakeToaster.class,
+					new ToasterSettings().setListenerExecutor(pool));
+			var done = new CountDownLatch(1);
+			dispatcher.dispatch(() -> {
+				throw new IllegalStateException("Failed.");
+			});
+			dispatcher.dispatch(done::countDown);
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void reportsSlowListener() {
+		var slow = new ArrayList<String>();
+		ToasterFactory.setMetrics(new ToasterMetrics() {
+			@Override
+			public void slowListener(Class<? extends Toaster> backend) {
+				slow.add(backend.getSimpleName());
+			}
+		});
+		var scheduler = new ManualTimeoutScheduler();
+		var dispatcher = new ListenerDispatcher(FakeToaster.class, new ToasterSettings()
+				.setScheduler(scheduler).setSlowListenerThreshold(100).setListenerExecutor(Runnable::run));
+		dispatcher.dispatch(() -> scheduler.advance(50, TimeUnit.MILLISECONDS));
+		assertEquals(List.of(), slow);
+		dispatcher.dispatch(() -> scheduler.advance(150, TimeUnit.MILLISECONDS));
+		assertEquals(List.of("FakeToaster"), slow);
+		assertEquals(0, scheduler.pending());
+	}
+
+	@Test
+	public void reportsSlowListenerWithoutTimerWhenNoExecutor() {
+		var slow = new ArrayList<String>();
+		ToasterFactory.setMetrics(new ToasterMetrics() {
+			@Override
+			public void slowListener(Class<? extends Toaster> backend) {
+				slow.add(backend.getSimpleName());
+			}
+		});
+		var scheduler = new ManualTimeoutScheduler();
+		var dispatcher = new ListenerDispatcher(FakeToaster.class,
+				new ToasterSettings().setScheduler(scheduler).setSlowListenerThreshold(100));
+		dispatcher.dispatch(() -> assertEquals(0, scheduler.pending()));
+		assertEquals(List.of(), slow);
+		dispatcher.dispatch(() -> {
+			try {
+				Thread.sleep(150);
+			} catch (InterruptedException e) {
+			}
+		});
+		assertEquals(List.of("FakeToaster"), slow);
+	}
+}
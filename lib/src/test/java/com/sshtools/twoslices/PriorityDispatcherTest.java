@@ -0,0 +1,90 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PriorityDispatcher}. These are pure and do not display
+ * a notification.
+ */
+public class PriorityDispatcherTest {
+
+	private PriorityDispatcher dispatcher;
+
+	@After
+	public void closeDispatcher() {
+		if (dispatcher != null)
+			dispatcher.close();
+	}
+
+	@Test
+	public void priorityDefaultsFromType() {
+		assertEquals(3, new ToastBuilder().type(ToastType.ERROR).build().priority());
+		assertEquals(2, new ToastBuilder().type(ToastType.WARNING).build().priority());
+		assertEquals(1, new ToastBuilder().type(ToastType.INFO).build().priority());
+		assertEquals(7, new ToastBuilder().type(ToastType.INFO).hint(BasicToastHint.PRIORITY, 7).build().priority());
+	}
+
+	@Test
+	public void deliversMostUrgentFirst() throws Exception {
+		dispatcher = new PriorityDispatcher(1, 1, TimeUnit.HOURS);
+		var toaster = new FakeToaster().blocking(5);
+		var chain = new InterceptorChain(new ToastInterceptor[0], toaster, System.nanoTime());
+		dispatcher.intercept(new ToastBuilder().type(ToastType.INFO).title("first").build(), chain);
+		assertTrue(toaster.started.await(10, TimeUnit.SECONDS));
+		dispatcher.intercept(new ToastBuilder().type(ToastType.INFO).title("info1").build(), chain);
+		dispatcher.intercept(new ToastBuilder().type(ToastType.WARNING).title("warning").build(), chain);
+		dispatcher.intercept(new ToastBuilder().type(ToastType.INFO).title("info2").build(), chain);
+		dispatcher.intercept(new ToastBuilder().type(ToastType.ERROR).title("error").build(), chain);
+		assertEquals(4, dispatcher.waiting());
+		toaster.gate.countDown();
+		assertTrue(toaster.done.await(10, TimeUnit.SECONDS));
+		assertEquals(List.of("first", "error", "warning", "info1", "info2"), toaster.titles());
+	}
+
+	@Test
+	public void agingOvertakesHigherPriority() {
+		dispatcher = new PriorityDispatcher(1, 1, TimeUnit.SECONDS);
+		var second = TimeUnit.SECONDS.toNanos(1);
+		/* An info that has waited over two seconds more than an error goes first */
+		assertTrue(dispatcher.rank(1, 0) > dispatcher.rank(3, 2 * second + 1));
+		assertTrue(dispatcher.rank(1, 0) < dispatcher.rank(3, 2 * second - 1));
+		assertEquals(Long.MAX_VALUE, dispatcher.rank(Integer.MAX_VALUE, -Long.MAX_VALUE));
+	}
+
+	@Test
+	public void closeDiscardsWaiting() throws Exception {
+		dispatcher = new PriorityDispatcher();
+		var toaster = new FakeToaster().blocking(1);
+		var chain = new InterceptorChain(new ToastInterceptor[0], toaster, System.nanoTime());
+		dispatcher.intercept(new ToastBuilder().title("first").build(), chain);
+		assertTrue(toaster.started.await(10, TimeUnit.SECONDS));
+		var waiting = (FutureSlice) dispatcher.intercept(new ToastBuilder().title("second").build(), chain);
+		dispatcher.close();
+		assertTrue(waiting.isDone());
+		toaster.gate.countDown();
+		assertTrue(toaster.done.await(10, TimeUnit.SECONDS));
+		assertEquals(List.of("first"), toaster.titles());
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ResolvedHints}. These are pure and do not display a
+ * notification.
+ */
+public class ResolvedHintsTest {
+
+	enum CustomHint implements ToastHint {
+		COLOUR;
+
+		@Override
+		public String toLegacyKey() {
+			return "colour";
+		}
+	}
+
+	private final Map<ToastHint, Object> none = Collections.emptyMap();
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void messageOverridesHintsOverridesProperties() {
+		var settings = new ToasterSettings();
+		settings.getProperties().put("threshold", 1);
+		settings.getProperties().put("offset", 2);
+		settings.getHints().put(BasicToastHint.THRESHOLD, 3);
+		var hints = settings.getResolvedHints();
+		assertEquals(3, hints.getInt(none, BasicToastHint.THRESHOLD, 0));
+		assertEquals(2, hints.getInt(none, BasicToastHint.OFFSET, 0));
+		assertEquals(4, hints.getInt(new ToastBuilder().hint(BasicToastHint.THRESHOLD, 4).build().hints(),
+				BasicToastHint.THRESHOLD, 0));
+		assertEquals(5, hints.getInt(none, BasicToastHint.MONITOR, 5));
+	}
+
+	@Test
+	public void typedAccessors() {
+		var settings = new ToasterSettings();
+		settings.getHints().put(BasicToastHint.ANIMATED, true);
+		settings.getHints().put(BasicToastHint.MAX_IMAGE_PIXELS, 100);
+		settings.getHints().put(BasicToastHint.COLLAPSE_MESSAGE, "More");
+		var hints = settings.getResolvedHints();
+		assertTrue(hints.getBoolean(none, BasicToastHint.ANIMATED, false));
+		assertFalse(hints.getBoolean(none, BasicToastHint.DARK, false));
+		assertEquals(100L, hints.getLong(none, BasicToastHint.MAX_IMAGE_PIXELS, 0));
+		assertEquals("More", hints.getString(none, BasicToastHint.COLLAPSE_MESSAGE, null));
+		assertNull(hints.get(none, BasicToastHint.STYLE));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void otherHintsAreResolvedFromSettings() {
+		var settings = new ToasterSettings();
+		settings.getProperties().put("colour", "red");
+		assertEquals("red", settings.getResolvedHints().get(none, CustomHint.COLOUR));
+		settings.getHints().put(CustomHint.COLOUR, "blue");
+		assertEquals("blue", settings.getResolvedHints().get(none, CustomHint.COLOUR));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void resolvedAgainOnlyWhenChanged() {
+		var settings = new ToasterSettings();
+		var hints = settings.getResolvedHints();
+		assertSame(hints, settings.getResolvedHints());
+
+		settings.getHints().put(BasicToastHint.THRESHOLD, 3);
+		var changed = settings.getResolvedHints();
+		assertNotSame(hints, changed);
+		assertEquals(3, changed.getInt(none, BasicToastHint.THRESHOLD, 0));
+
+		settings.getProperties().put("offset", 7);
+		assertEquals(7, settings.getResolvedHints().getInt(none, BasicToastHint.OFFSET, 0));
+
+		settings.getHints().entrySet().iterator().next().setValue(9);
+		assertEquals(9, settings.getResolvedHints().getInt(none, BasicToastHint.THRESHOLD, 0));
+
+		settings.getHints().keySet().remove(BasicToastHint.THRESHOLD);
+		assertEquals(0, settings.getResolvedHints().getInt(none, BasicToastHint.THRESHOLD, 0));
+	}
+}
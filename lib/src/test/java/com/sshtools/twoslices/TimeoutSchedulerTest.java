@@ -0,0 +1,101 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TimeoutScheduler} implementations. These are pure and
+ * do not display a notification.
+ */
+public class TimeoutSchedulerTest {
+
+	@Test
+	public void manualRunsDueTasksInOrder() {
+		var scheduler = new ManualTimeoutScheduler();
+		var ran = new ArrayList<String>();
+		scheduler.schedule(() -> ran.add("b"), 2, TimeUnit.SECONDS);
+		scheduler.schedule(() -> ran.add("a"), 1, TimeUnit.SECONDS);
+		scheduler.schedule(() -> ran.add("c"), 10, TimeUnit.SECONDS);
+
+		scheduler.advance(5, TimeUnit.SECONDS);
+		assertEquals(2, ran.size());
+		assertEquals("a", ran.get(0));
+		assertEquals("b", ran.get(1));
+		assertEquals(1, scheduler.pending());
+		assertEquals(5, scheduler.now(TimeUnit.SECONDS));
+
+		scheduler.runAll();
+		assertEquals(3, ran.size());
+		assertEquals(10, scheduler.now(TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void manualCancel() {
+		var scheduler = new ManualTimeoutScheduler();
+		var count = new AtomicInteger();
+		var timeout = scheduler.schedule(count::incrementAndGet, 1, TimeUnit.SECONDS);
+		assertTrue(timeout.cancel());
+		assertFalse(timeout.cancel());
+		scheduler.advance(1, TimeUnit.MINUTES);
+		assertEquals(0, count.get());
+		assertEquals(0, scheduler.pending());
+	}
+
+	@Test
+	public void manualUsesExecutor() {
+		var scheduler = new ManualTimeoutScheduler();
+		var handedOff = new AtomicInteger();
+		var count = new AtomicInteger();
+		scheduler.schedule(count::incrementAndGet, 1, TimeUnit.SECONDS, r -> {
+			handedOff.incrementAndGet();
+			r.run();
+		});
+		scheduler.advance(1, TimeUnit.SECONDS);
+		assertEquals(1, handedOff.get());
+		assertEquals(1, count.get());
+	}
+
+	@Test
+	public void defaultHandsOffToExecutor() throws InterruptedException {
+		var latch = new CountDownLatch(1);
+		var executed = new AtomicInteger();
+		TimeoutScheduler.defaultScheduler().schedule(latch::countDown, 10, TimeUnit.MILLISECONDS, r -> {
+			executed.incrementAndGet();
+			r.run();
+		});
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals(1, executed.get());
+	}
+
+	@Test
+	public void defaultCancel() throws InterruptedException {
+		var count = new AtomicInteger();
+		var timeout = TimeoutScheduler.defaultScheduler().schedule(count::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+		assertTrue(timeout.cancel());
+		Thread.sleep(200);
+		assertEquals(0, count.get());
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ToastInterceptor}s. These are pure and do not display
+ * a notification.
+ */
+public class ToastInterceptorTest {
+
+	static class NamedInterceptor implements ToastInterceptor {
+		final String name;
+		final int order;
+		final List<String> calls;
+
+		NamedInterceptor(String name, int order, List<String> calls) {
+			this.name = name;
+			this.order = order;
+			this.calls = calls;
+		}
+
+		@Override
+		public int order() {
+			return order;
+		}
+
+		@Override
+		public Slice intercept(Toast toast, Chain chain) {
+			calls.add(name);
+			return chain.proceed(toast);
+		}
+	}
+
+	private final List<ToastInterceptor> added = new ArrayList<>();
+
+	@After
+	public void removeInterceptors() {
+		for (var i : added)
+			ToasterFactory.removeInterceptor(i);
+	}
+
+	private void add(ToastInterceptor interceptor) {
+		added.add(interceptor);
+		ToasterFactory.addInterceptor(interceptor);
+	}
+
+	@Test
+	public void noInterceptorsByDefault() {
+		assertTrue(ToasterFactory.getInterceptors().isEmpty());
+		var toaster = new FakeToaster();
+		new ToastBuilder().toaster(toaster).title("Test").toast();
+		assertEquals(1, toaster.toasts.size());
+	}
+
+	@Test
+	public void runInOrder() {
+		var calls = new ArrayList<String>();
+		add(new NamedInterceptor("second", 10, calls));
+		add(new NamedInterceptor("first", -10, calls));
+		add(new NamedInterceptor("third", 10, calls));
+		var toaster = new FakeToaster();
+		new ToastBuilder().toaster(toaster).title("Test").toast();
+		assertEquals(List.of("first", "second", "third"), calls);
+		assertEquals(1, toaster.toasts.size());
+	}
+
+	@Test
+	public void canShortCircuit() {
+		add((toast, chain) -> toast.type() == ToastType.INFO ? Slice.defaultSlice() : chain.proceed(toast));
+		var toaster = new FakeToaster();
+		new ToastBuilder().toaster(toaster).type(ToastType.INFO).title("Dropped").toast();
+		new ToastBuilder().toaster(toaster).type(ToastType.ERROR).title("Shown").toast();
+		assertEquals(1, toaster.toasts.size());
+		assertEquals("Shown", toaster.toasts.get(0).title());
+	}
+
+	@Test
+	public void canEnrich() {
+		add((toast, chain) -> chain.proceed(toast.toBuilder().hint(BasicToastHint.DARK, true)
+				.content(toast.content() + " (enriched)").build()));
+		var toaster = new FakeToaster();
+		new ToastBuilder().toaster(toaster).title("Title").content("Body").action("ok").toast();
+		var toast = toaster.toasts.get(0);
+		assertEquals("Title", toast.title());
+		assertEquals("Body (enriched)", toast.content());
+		assertEquals(Boolean.TRUE, toast.hints().get(BasicToastHint.DARK));
+		assertEquals("ok", toast.actions().get(0).name());
+		assertTrue(toast.submitted != 0);
+	}
+
+	@Test
+	public void canProceedLater() throws Exception {
+		var executor = Executors.newSingleThreadExecutor();
+		try {
+			add((toast, chain) -> chain.proceedLater(toast, executor));
+			var toaster = new FakeToaster();
+			new ToastBuilder().toaster(toaster).title("Later").toast();
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+			assertEquals("Later", toaster.toasts.get(0).title());
+			assertNull(toaster.toasts.get(0).content());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
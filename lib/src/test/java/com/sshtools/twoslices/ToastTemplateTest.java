@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ToastTemplate}. These are pure and do not display a
+ * notification.
+ */
+public class ToastTemplateTest {
+
+	@Test
+	public void fillsParametersInOrderOfAppearance() {
+		var toaster = new FakeToaster();
+		var template = new ToastBuilder().toaster(toaster).title("Build {name} failed")
+				.content("{name} failed in {duration}, see {}").template();
+		assertEquals(List.of("name", "duration"), template.parameters());
+
+		template.toast("app", "10s");
+		assertEquals("Build app failed", toaster.last.title());
+		assertEquals("app failed in 10s, see {}", toaster.last.content());
+
+		template.toast("lib", 3);
+		assertEquals("Build lib failed", toaster.last.title());
+		assertEquals("lib failed in 3, see {}", toaster.last.content());
+	}
+
+	@Test
+	public void sharesConstantParts() {
+		var toaster = new FakeToaster(Capability.ACTIONS, Capability.IMAGES);
+		var template = new ToastBuilder().toaster(toaster).type(ToastType.ERROR).title("Fixed").image("/tmp/x.png")
+				.action("open").hint(BasicToastHint.DARK, true).template();
+		var first = template.build();
+		var second = template.build();
+		assertSame(first.title(), second.title());
+		assertSame(first.actions(), second.actions());
+		assertSame(first.hints(), second.hints());
+		assertEquals(ToastType.ERROR, second.type());
+		assertEquals("/tmp/x.png", second.image());
+		assertNull(second.content());
+	}
+
+	@Test
+	public void evaluatesLazyImageOnlyWhenAsked() {
+		var calls = new AtomicInteger();
+		var template = new ToastBuilder().toaster(new FakeToaster(Capability.IMAGES)).lazyTitle(() -> "Hello {name}")
+				.lazyImage(() -> {
+					calls.incrementAndGet();
+					return "/tmp/x.png";
+				}).template();
+		assertEquals(List.of("name"), template.parameters());
+		var toast = template.build("world");
+		assertEquals(0, calls.get());
+		assertEquals("/tmp/x.png", toast.image());
+		assertEquals("/tmp/x.png", template.build("again").image());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void removesUnsupportedImage() {
+		var template = new ToastBuilder().toaster(new FakeToaster()).image("/tmp/x.png").template();
+		assertNull(template.build().image());
+	}
+
+	@Test
+	public void rejectsMissingParameters() {
+		var template = new ToastBuilder().toaster(new FakeToaster()).title("{a} and {b}").template();
+		try {
+			template.toast("a");
+			fail("Expected exception.");
+		} catch (IllegalArgumentException iae) {
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the immutable {@link Toast} snapshot passed to toasters.
+ * These are pure and do not display a notification.
+ */
+public class ToastTest {
+
+	@Test
+	public void snapshotIsUnaffectedByReuse() {
+		var toaster = new FakeToaster();
+		ToastActionListener listener = () -> {
+		};
+		var builder = new ToastBuilder().toaster(toaster).type(ToastType.WARNING).title("Title").content("Body")
+				.timeout(5).action("ok", "OK", listener).hint(BasicToastHint.DARK, true);
+		builder.toast();
+		var toast = toaster.last;
+
+		builder.reset().title("Other").hint(BasicToastHint.DARK, false).newAction("cancel");
+
+		assertEquals(ToastType.WARNING, toast.type());
+		assertEquals("Title", toast.title());
+		assertEquals("Body", toast.content());
+		assertEquals(5, toast.timeout());
+		assertEquals(1, toast.actions().size());
+		assertEquals("ok", toast.actions().get(0).name());
+		assertSame(listener, toast.actions().get(0).listener());
+		assertEquals(Boolean.TRUE, toast.hints().get(BasicToastHint.DARK));
+	}
+
+	@Test
+	public void snapshotActionsAreCopies() {
+		var builder = new ToastBuilder();
+		var action = builder.newAction("reply").label("Reply").input(true).prompt("Message");
+		var toast = builder.build();
+		action.label("Changed");
+
+		assertEquals("Reply", toast.actions().get(0).label());
+		assertTrue(toast.actions().get(0).input());
+		assertEquals("Message", toast.actions().get(0).prompt());
+		assertNull(toast.defaultAction());
+	}
+
+	@Test
+	public void snapshotActionsAreUnmodifiable() {
+		var toast = new ToastBuilder().action("ok").defaultAction(() -> {
+		}).build();
+		try {
+			toast.actions().get(0).label("Changed");
+			fail("Expected exception.");
+		} catch (UnsupportedOperationException uoe) {
+		}
+		try {
+			toast.defaultAction().listener(null);
+			fail("Expected exception.");
+		} catch (UnsupportedOperationException uoe) {
+		}
+		var builder = toast.toBuilder();
+		builder.actions().get(0).label("Changed");
+		assertEquals("Changed", builder.build().actions().get(0).label());
+		assertEquals("ok", toast.actions().get(0).label());
+	}
+
+	@Test
+	public void snapshotCollectionsAreUnmodifiable() {
+		var toast = new ToastBuilder().action("ok").hint(BasicToastHint.DARK, true).build();
+		try {
+			toast.actions().clear();
+			fail("Expected exception.");
+		} catch (UnsupportedOperationException uoe) {
+		}
+		try {
+			toast.hints().clear();
+			fail("Expected exception.");
+		} catch (UnsupportedOperationException uoe) {
+		}
+	}
+
+	@Test
+	public void toasterAcceptsBuilder() {
+		var toaster = new FakeToaster();
+		var got = new AtomicReference<String>();
+		toaster.toast(new ToastBuilder().title("Title").closed(() -> got.set("closed")));
+		assertEquals("Title", toaster.last.title());
+		toaster.last.closed().action();
+		assertEquals("closed", got.get());
+	}
+
+	@Test
+	public void suppliersAreEvaluatedOnlyWhenRead() {
+		var toaster = new FakeToaster();
+		var calls = new AtomicInteger();
+		new ToastBuilder().toaster(toaster).lazyTitle(() -> {
+			calls.incrementAndGet();
+			return "Title";
+		}).lazyContent(() -> {
+			calls.incrementAndGet();
+			return "Body";
+		}).lazyImage(() -> {
+			calls.incrementAndGet();
+			return "/tmp/image.png";
+		}).toast();
+		assertEquals(0, calls.get());
+
+		var toast = toaster.last;
+		assertEquals("Title", toast.title());
+		assertEquals("Title", toast.title());
+		assertEquals(1, calls.get());
+		assertEquals("Body", toast.content());
+		assertEquals("/tmp/image.png", toast.image());
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	public void supplierIsEvaluatedOnceAcrossThreads() throws Exception {
+		var calls = new AtomicInteger();
+		var toast = new ToastBuilder().lazyContent(() -> {
+			calls.incrementAndGet();
+			return "Body";
+		}).build();
+		var start = new CountDownLatch(1);
+		var threads = new ArrayList<Thread>();
+		var wrong = new AtomicInteger();
+		for (var i = 0; i < 8; i++) {
+			var t = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+				}
+				if (!"Body".equals(toast.content()))
+					wrong.incrementAndGet();
+			});
+			t.start();
+			threads.add(t);
+		}
+		start.countDown();
+		for (var t : threads)
+			t.join();
+		assertEquals(1, calls.get());
+		assertEquals(0, wrong.get());
+	}
+
+	@Test
+	public void eagerValueReplacesSupplier() {
+		var builder = new ToastBuilder().lazyTitle(() -> "Lazy").title("Eager");
+		assertEquals("Eager", builder.build().title());
+		assertNull(new ToastBuilder().build().content());
+		assertNull(new ToastBuilder().lazyContent(() -> "Lazy").content(null).build().content());
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for {@link ToasterEvents}. These are pure and do not display a
+ * notification.
+ */
+public class ToasterEventsTest {
+
+	@Test
+	public void recordsSubmitWhenEnabled() throws Exception {
+		var events = record("com.sshtools.twoslices.Submit",
+				() -> new ToastBuilder().toaster(new FakeToaster()).title("Test").toast());
+		assertEquals(1, events.size());
+		var event = events.get(0);
+		assertEquals(FakeToaster.class.getName(), event.getClass("backend").getName());
+		assertFalse(event.getBoolean("failed"));
+		assertTrue(event.getLong("timeTaken") >= 0);
+	}
+
+	@Test
+	public void recordsInteractionWhenEnabled() throws Exception {
+		var events = record("com.sshtools.twoslices.Interaction",
+				() -> ToasterEvents.interaction(FakeToaster.class, ToasterEvents.KIND_ACTION, "Open"));
+		assertEquals(1, events.size());
+		assertEquals(ToasterEvents.KIND_ACTION, events.get(0).getString("kind"));
+		assertEquals("Open", events.get(0).getString("action"));
+	}
+
+	@Test
+	public void disabledByDefault() throws Exception {
+		var events = record(null,
+				() -> ToasterEvents.interaction(FakeToaster.class, ToasterEvents.KIND_CLOSED, null));
+		assertTrue(events.isEmpty());
+	}
+
+	private List<RecordedEvent> record(String enable, Runnable task) throws Exception {
+		var file = Files.createTempFile("twoslices", ".jfr");
+		try {
+			try (var recording = new Recording()) {
+				if (enable != null)
+					recording.enable(enable);
+				recording.start();
+				task.run();
+				recording.stop();
+				recording.dump(file);
+			}
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(e -> e.getEventType().getName().startsWith("com.sshtools.twoslices."))
+					.collect(Collectors.toList());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
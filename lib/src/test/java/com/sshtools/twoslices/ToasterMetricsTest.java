@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ToasterMetrics} recording. These are pure and do not
+ * display a notification.
+ */
+public class ToasterMetricsTest {
+
+	static class RecordingMetrics implements ToasterMetrics {
+		final List<String> events = new CopyOnWriteArrayList<>();
+		long latency = -1;
+
+		@Override
+		public void submitted(Class<? extends Toaster> backend) {
+			events.add("submitted:" + backend.getSimpleName());
+		}
+
+		@Override
+		public void delivered(Class<? extends Toaster> backend, long latencyNanos) {
+			events.add("delivered:" + backend.getSimpleName());
+			latency = latencyNanos;
+		}
+
+		@Override
+		public void failed(Class<? extends Toaster> backend, Class<? extends Throwable> cause) {
+			events.add("failed:" + cause.getSimpleName());
+		}
+	}
+
+	@After
+	public void resetMetrics() {
+		ToasterFactory.setMetrics(null);
+	}
+
+	@Test
+	public void defaultsToNoOp() {
+		assertSame(ToasterMetrics.NONE, ToasterFactory.getMetrics());
+	}
+
+	@Test
+	public void recordsSynchronousDelivery() {
+		var metrics = new RecordingMetrics();
+		ToasterFactory.setMetrics(metrics);
+		new ToastBuilder().toaster(new FakeToaster()).title("Test").toast();
+		assertEquals(List.of("submitted:FakeToaster", "delivered:FakeToaster"), metrics.events);
+		assertTrue(metrics.latency >= 0);
+	}
+
+	@Test
+	public void recordsDeliveryOfBuilderPassedToToaster() {
+		var metrics = new RecordingMetrics();
+		ToasterFactory.setMetrics(metrics);
+		new FakeToaster().toast(new ToastBuilder().title("Test"));
+		assertEquals(List.of("submitted:FakeToaster", "delivered:FakeToaster"), metrics.events);
+		assertTrue(metrics.latency >= 0);
+	}
+
+	@Test
+	public void recordsFailure() {
+		var metrics = new RecordingMetrics();
+		ToasterFactory.setMetrics(metrics);
+		try {
+			new ToastBuilder().toaster(new FakeToaster()).title("fail").toast();
+			fail("Expected exception.");
+		} catch (ToasterException te) {
+		}
+		assertEquals(List.of("submitted:FakeToaster", "failed:ToasterException"), metrics.events);
+	}
+
+	@Test
+	public void recordsDeferredDeliveryWhenShown() {
+		var metrics = new RecordingMetrics();
+		ToasterFactory.setMetrics(metrics);
+		var toaster = new FakeToaster();
+		toaster.defer = true;
+		new ToastBuilder().toaster(toaster).title("Test").toast();
+		assertEquals(List.of("submitted:FakeToaster"), metrics.events);
+		toaster.show();
+		assertEquals(List.of("submitted:FakeToaster", "delivered:FakeToaster"), metrics.events);
+	}
+
+	@Test
+	public void deferralOnlyAppliesToItsOwnDelivery() {
+		var metrics = new RecordingMetrics();
+		ToasterFactory.setMetrics(metrics);
+		var toast = new ToastBuilder().title("Test").build();
+		var deferred = new FakeToaster();
+		deferred.defer = true;
+		new ToastBuilder(toast).toaster(deferred).toast();
+		new ToastBuilder(toast).toaster(new FakeToaster()).toast();
+		assertEquals(List.of("submitted:FakeToaster", "submitted:FakeToaster", "delivered:FakeToaster"),
+				metrics.events);
+	}
+}
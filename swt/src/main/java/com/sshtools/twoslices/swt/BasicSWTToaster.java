@@ -15,23 +15,27 @@
  */
 package com.sshtools.twoslices.swt;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.Semaphore;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.ToolTip;
 import org.eclipse.swt.widgets.TrayItem;
 
 import com.sshtools.twoslices.AbstractToaster;
+import com.sshtools.twoslices.BasicToastHint;
 import com.sshtools.twoslices.Capability;
 import com.sshtools.twoslices.Slice;
-import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.TimeoutScheduler.Timeout;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.ToastType;
 import com.sshtools.twoslices.Toaster;
 import com.sshtools.twoslices.ToasterService;
@@ -47,7 +51,7 @@ import com.sshtools.twoslices.ToasterSettings.SystemTrayIconMode;
  * instance of {@link TrayItem}. When provided, this tray item will be used as
  * the parent of the balloon messages.
  */
-public class BasicSWTToaster extends AbstractToaster {
+public class BasicSWTToaster extends AbstractToaster implements Closeable {
 	
 	public static class Service implements ToasterService {
 		@Override
@@ -57,21 +61,29 @@ public class BasicSWTToaster extends AbstractToaster {
 	}
 	
 	/**
-	 * On Linux Cinnamon (probably others?), if we don't wait for a short while
-	 * after the tray item has been added for it to actually be shown on the
-	 * desktop, the position of the balloon will be incorrect, so we have to
-	 * wait for at least this amount of until the first notification message can
-	 * be shown. Subsequent notifications will not need to do this. At no point
-	 * though will the calling thread be held up, the message will just take a
-	 * short while to appear.
+	 * On Linux Cinnamon (probably others?), if the first balloon is shown before
+	 * the tray item has actually been shown on the desktop, the position of the
+	 * balloon will be incorrect. SWT cannot tell us when this has happened, so
+	 * messages are queued until the tray item is ready, and then shown straight
+	 * away. The tray item is ready when any of the following happen :-
+	 * <ul>
+	 * <li>The item was supplied by the application as the parent.</li>
+	 * <li>This many milliseconds have passed since the item was created.</li>
+	 * <li>Any event is received from the item, e.g. it is clicked.</li>
+	 * <li>The application calls {@link #ready()}.</li>
+	 * </ul>
+	 * At no point will the calling thread be held up.
 	 */
 	final static int STARTUP_WAIT = 3000;
+	private final List<SWTSlice> pending = new ArrayList<>();
+	private Display display;
+	private boolean managed;
+	private boolean closed;
 	private TrayItem item;
 	private Object lock = new Object();
 	private boolean ready;
 	private Shell shell;
-	private long started;
-	private Thread timer;
+	private Timeout timer;
 	private ToolTip tip;
 	private Image lastImage;
 	private int lastSwtCode;
@@ -80,19 +92,22 @@ public class BasicSWTToaster extends AbstractToaster {
 		
 		private Display display;
 		private boolean isClosed = false;
+		private boolean shown;
 		
+		private final long submitted;
 		private final String icon;
 		private final ToastType type;
 		private final String title;
 		private final String content;
 		private final int timeout;
 		
-		SWTSlice(ToastBuilder builder) {
-			type = builder.type();
-			icon = builder.icon();
-			title = builder.title();
-			content = builder.content();
-			timeout = builder.timeout();
+		SWTSlice(Toast toast) {
+			submitted = deferDelivery(toast);
+			type = toast.type();
+			icon = toast.icon();
+			title = toast.title();
+			content = toast.content();
+			timeout = toast.timeout();
 		}
 
 		@Override
@@ -101,6 +116,15 @@ public class BasicSWTToaster extends AbstractToaster {
 				if(isClosed)
 					return;
 				isClosed = true;
+				if (display == null) {
+					/* Still waiting for the tray to be ready */
+					pending.remove(this);
+					metrics().queueDepth(BasicSWTToaster.this.getClass(), pending.size());
+					metrics().dropped(BasicSWTToaster.this.getClass());
+					return;
+				}
+				if (shown)
+					metrics().closed(BasicSWTToaster.this.getClass());
 				var fTip = tip;
 				display.asyncExec(() -> {
 					if (fTip != null)
@@ -110,7 +134,6 @@ public class BasicSWTToaster extends AbstractToaster {
 							item.setImage(getPlatformImage(getTypeImage(null)));
 						} catch (IOException e) {
 							item.setVisible(false);
-							ready = false;
 						}
 					} else {
 						if (lastImage != null) {
@@ -134,36 +157,133 @@ public class BasicSWTToaster extends AbstractToaster {
 		super(configuration);
 		try {
 			Class.forName("org.eclipse.swt.widgets.Tray");
-			if (!hasTray())
-				throw new UnsupportedOperationException();
-			started = System.currentTimeMillis();
 			capabilities.addAll(Arrays.asList(Capability.IMAGES, Capability.CLOSE));
-			init();
+			/*
+			 * A managed display is kept until the toaster is closed, as the tray item lives
+			 * on it
+			 */
+			managed = getHint(BasicToastHint.MANAGED_UI_THREAD, false);
+			if (managed)
+				display = SWTDisplayThread.acquire(TimeUnit.SECONDS.toMillis(
+						(int) getHint(BasicToastHint.UI_THREAD_IDLE_TIMEOUT, SWTToaster.DEFAULT_IDLE_TIMEOUT)));
+			else
+				display = Display.getDefault();
+			if (!init()) {
+				if (managed)
+					SWTDisplayThread.release(display);
+				throw new UnsupportedOperationException();
+			}
 		} catch (ClassNotFoundException | NoClassDefFoundError cnfe) {
 			throw new UnsupportedOperationException();
 		}
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
-		return doToast(new SWTSlice(builder));
+	public Slice toast(Toast toast) {
+		return doToast(new SWTSlice(toast));
+	}
+
+	/**
+	 * Signal that the tray item is ready to show messages. Any messages that were
+	 * sent before this are shown immediately. It is not usually necessary to call
+	 * this, but an application that creates its own tray item and knows when it
+	 * is on the desktop may do so.
+	 */
+	public void ready() {
+		List<SWTSlice> flush;
+		synchronized (lock) {
+			if (ready)
+				return;
+			ready = true;
+			flush = new ArrayList<>(pending);
+			pending.clear();
+			metrics().queueDepth(getClass(), 0);
+		}
+		for (var slice : flush) {
+			if (!slice.isClosed)
+				doToast(slice);
+		}
+	}
+
+	/**
+	 * Get whether there is a system tray. This is now checked when the toaster is
+	 * created, which fails with {@link UnsupportedOperationException} if there is
+	 * not, so this is no longer called and always returns <code>true</code> for a
+	 * constructed toaster.
+	 *
+	 * @return has tray
+	 * @deprecated use {@link #ready()} to signal when the tray item is showing
+	 */
+	@Deprecated
+	protected boolean hasTray() {
+		synchronized (lock) {
+			return item != null;
+		}
+	}
+
+	/**
+	 * Remove the tray item, unless it was supplied as the parent, and release the
+	 * managed display if one is used. Messages that are still waiting for the tray
+	 * item to be ready are dropped, as are any sent after this.
+	 */
+	@Override
+	public void close() {
+		synchronized (lock) {
+			if (closed)
+				return;
+			closed = true;
+			for (var slice : pending) {
+				slice.isClosed = true;
+				metrics().dropped(getClass());
+			}
+			pending.clear();
+			metrics().queueDepth(getClass(), 0);
+			if (timer != null) {
+				timer.cancel();
+				timer = null;
+			}
+		}
+		if (!display.isDisposed()) {
+			display.asyncExec(() -> {
+				synchronized (lock) {
+					if (tip != null) {
+						tip.dispose();
+						tip = null;
+					}
+					if (shell != null)
+						shell.dispose();
+					if (configuration.getParent() == null)
+						item.dispose();
+					else if (lastImage != null) {
+						item.setImage(lastImage);
+						lastImage = null;
+					}
+				}
+			});
+		}
+		if (managed)
+			SWTDisplayThread.release(display);
 	}
 
 	protected Slice doToast(SWTSlice slice) {
 		synchronized (lock) {
-			var display = Display.getDefault();
+			if (closed) {
+				slice.isClosed = true;
+				metrics().dropped(getClass());
+				return slice;
+			}
 			if (!ready) {
-				var now = System.currentTimeMillis();
-				if (now < started + STARTUP_WAIT) {
-					display.asyncExec(() -> display.timerExec((int) ((started + STARTUP_WAIT) - now), () -> {
-						ready = true;
-						doToast(slice);
-					}));
-					return slice;
-				}
+				pending.add(slice);
+				metrics().queueDepth(getClass(), pending.size());
+				return slice;
 			}
+			slice.display = display;
 			display.asyncExec(() -> {
 				synchronized (lock) {
+					if (slice.isClosed || closed) {
+						metrics().dropped(getClass());
+						return;
+					}
 					var swtCode = typeToSWTCode(slice.type);
 					if (tip == null || swtCode != lastSwtCode) {
 						if (tip != null)
@@ -171,8 +291,9 @@ public class BasicSWTToaster extends AbstractToaster {
 						tip = new ToolTip(shell, SWT.BALLOON | swtCode);
 						lastSwtCode = swtCode;
 						tip.setAutoHide(false);
-					} else {
-						timer.interrupt();
+					} else if (timer != null) {
+						timer.cancel();
+						timer = null;
 					}
 					doShow(display, slice);
 				}
@@ -194,41 +315,7 @@ public class BasicSWTToaster extends AbstractToaster {
 		}
 	}
 
-	protected boolean hasTray() {
-		/*
-		 * Check for the tray. This has to be done in the SWT thread. Being as
-		 * we don't know if there is a dispatch thread running, we submit a task
-		 * and wait a short while.
-		 */
-		var d = Display.getDefault();
-		try {
-			if (d == null || d.getSystemTray() == null)
-				return false;
-			/* Alway in dispatch thread */
-			return true;
-		} catch (SWTException e) {
-		}
-		final var result = new boolean[1];
-		final var sem = new Semaphore(1);
-		try {
-			sem.acquire();
-			try {
-				d.asyncExec(() -> {
-					result[0] = d != null && d.getSystemTray() != null;
-					sem.release();
-				});
-				sem.tryAcquire(250, TimeUnit.MILLISECONDS);
-			} finally {
-				sem.release();
-			}
-		} catch (InterruptedException ie) {
-		} catch (SWTException se) {
-		}
-		return result[0];
-	}
-
 	private void doShow(Display display, SWTSlice slice) {
-		slice.display = display;
 		tip.setMessage(slice.content);
 		var icon = slice.icon;
 		if(configuration.getSystemTrayIconMode() != SystemTrayIconMode.ORIGINAL) {
@@ -252,34 +339,45 @@ public class BasicSWTToaster extends AbstractToaster {
 		tip.setText(slice.title);
 		tip.setVisible(true);
 		item.setVisible(true);
+		slice.shown = true;
+		delivered(slice.submitted);
+		metrics().opened(getClass());
 		if(timer != null) {
-			timer.interrupt();
+			timer.cancel();
+			timer = null;
 		}
-		timer = new Thread("SWTNotifierWait") {
-			@Override
-			public void run() {
+		if (slice.timeout != 0) {
+			timer = configuration.getScheduler().schedule(() -> {
 				try {
-					Thread.sleep((slice.timeout == -1 ? configuration.getTimeout() : slice.timeout) * 1000);
 					slice.close();
-				} catch (Exception ie) {
-				} finally {
-					slice.isClosed = true;
+				} catch (IOException ioe) {
 				}
-			}
-		};
-		timer.start();
+			}, slice.timeout == -1 ? configuration.getTimeout() : slice.timeout, TimeUnit.SECONDS, display::asyncExec);
+		}
 	}
 
-	private void init() {
-		var display = Display.getDefault();
+	private boolean init() {
+		if (display == null)
+			return false;
+		var result = new boolean[1];
 		display.syncExec(() -> {
 			if (configuration.getParent() != null && configuration.getParent() instanceof TrayItem) {
 				item = (TrayItem) configuration.getParent();
+				ready = true;
 			} else {
-				item = new TrayItem(display.getSystemTray(), SWT.NONE);
+				var tray = display.getSystemTray();
+				if (tray == null)
+					return;
+				item = new TrayItem(tray, SWT.NONE);
+				Listener readyListener = e -> ready();
+				for (var type : new int[] { SWT.Selection, SWT.DefaultSelection, SWT.MenuDetect })
+					item.addListener(type, readyListener);
+				display.timerExec(STARTUP_WAIT, this::ready);
 			}
 			shell = new Shell(display, SWT.NONE);
+			result[0] = true;
 		});
+		return result[0];
 	}
 
 	private Image getPlatformImage(Image image) {
@@ -297,7 +395,7 @@ public class BasicSWTToaster extends AbstractToaster {
 	}
 
 	private Image getTypeImage(ToastType type) throws IOException {
-		var d = Display.getDefault();
+		var d = display;
 		if (configuration.getSystemTrayIconMode() == SystemTrayIconMode.HIDDEN) {
 			return new Image(d, getClass().getResourceAsStream("/images/blank-48.gif"));
 		} else if (type == null || ((configuration.getSystemTrayIconMode() == SystemTrayIconMode.SHOW_DEFAULT_WHEN_ACTIVE
@@ -0,0 +1,134 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.swt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Frame paced animation of shell locations on a {@link Display}. A single
+ * {@link Display#timerExec(int, Runnable)} tick at {@link #FPS} frames per
+ * second moves every shell that is currently animating, so any number of
+ * popups cost one timer per frame. The timer is only scheduled while there is
+ * something to animate. Should only be used on the display's thread.
+ */
+final class SWTAnimator {
+
+	/**
+	 * Target frames per second.
+	 */
+	final static int FPS = 60;
+
+	private final static int FRAME_TIME = 1000 / FPS;
+
+	private final static class Animation {
+		private final Point start;
+		private final Point end;
+		private final long started;
+		private final long duration;
+
+		private Animation(Point start, Point end, long duration) {
+			this.start = start;
+			this.end = end;
+			this.duration = duration;
+			this.started = System.currentTimeMillis();
+		}
+	}
+
+	private final Display display;
+	private final Map<Shell, Animation> animations = new LinkedHashMap<>();
+	private final Runnable tick = this::tick;
+	private boolean scheduled;
+
+	SWTAnimator(Display display) {
+		this.display = display;
+	}
+
+	/**
+	 * Move a shell from its current location to a new location over a period of
+	 * time. If the shell is already animating, it is re-targeted from wherever it
+	 * currently is.
+	 *
+	 * @param shell    shell
+	 * @param target   target location
+	 * @param duration duration in milliseconds
+	 */
+	void move(Shell shell, Point target, long duration) {
+		animations.put(shell, new Animation(shell.getLocation(), target, duration));
+		if (!scheduled) {
+			scheduled = true;
+			display.timerExec(FRAME_TIME, tick);
+		}
+	}
+
+	/**
+	 * Stop animating a shell, leaving it where it is.
+	 *
+	 * @param shell shell
+	 */
+	void cancel(Shell shell) {
+		animations.remove(shell);
+	}
+
+	/**
+	 * Stop all animation.
+	 */
+	void dispose() {
+		animations.clear();
+		if (scheduled && !display.isDisposed())
+			display.timerExec(-1, tick);
+		scheduled = false;
+	}
+
+	/**
+	 * Ease out cubic, so movement starts quickly and settles into place.
+	 *
+	 * @param progress linear progress from 0 to 1
+	 * @return eased progress from 0 to 1
+	 */
+	static double ease(double progress) {
+		var inv = 1d - progress;
+		return 1d - inv * inv * inv;
+	}
+
+	private void tick() {
+		scheduled = false;
+		var now = System.currentTimeMillis();
+		for (var it = animations.entrySet().iterator(); it.hasNext();) {
+			var en = it.next();
+			var shell = en.getKey();
+			if (shell.isDisposed()) {
+				it.remove();
+				continue;
+			}
+			var anim = en.getValue();
+			var progress = anim.duration < 1 ? 1d : Math.min(1d, (double) (now - anim.started) / anim.duration);
+			var eased = ease(progress);
+			shell.setLocation(anim.start.x + (int) Math.round((anim.end.x - anim.start.x) * eased),
+					anim.start.y + (int) Math.round((anim.end.y - anim.start.y) * eased));
+			if (progress >= 1)
+				it.remove();
+		}
+		if (!animations.isEmpty()) {
+			scheduled = true;
+			display.timerExec(FRAME_TIME, tick);
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.swt;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.swt.widgets.Display;
+
+import com.sshtools.twoslices.BasicToastHint;
+
+/**
+ * A {@link Display} owned by the library, for applications that do not run an
+ * SWT event loop of their own. A single daemon thread creates the display and
+ * runs the event loop. It is started when the first notification needs it, and
+ * once nothing has used it for the idle timeout, the display is disposed and
+ * the thread exits, releasing the toolkit's resources until the next
+ * notification.
+ *
+ * @see BasicToastHint#MANAGED_UI_THREAD
+ */
+final class SWTDisplayThread {
+
+	private final static Object lock = new Object();
+	private static SWTDisplayThread instance;
+
+	/**
+	 * Get the managed display, starting its thread if required, and mark it as in
+	 * use until a matching call to {@link #release(Display)}. As the display is
+	 * shared, it is kept for the longest idle timeout any caller has asked for.
+	 *
+	 * @param idleTimeout milliseconds to keep the display once it is no longer in
+	 *                    use
+	 * @return display
+	 */
+	static Display acquire(long idleTimeout) {
+		synchronized (lock) {
+			if (instance == null)
+				instance = new SWTDisplayThread(idleTimeout);
+			else
+				instance.idleTimeout = Math.max(instance.idleTimeout, idleTimeout);
+			instance.active++;
+			return instance.display;
+		}
+	}
+
+	/**
+	 * Mark the managed display as no longer in use by one caller. When there are
+	 * no more users, the display is disposed after the idle timeout unless it is
+	 * acquired again before then.
+	 *
+	 * @param display display
+	 */
+	static void release(Display display) {
+		synchronized (lock) {
+			if (instance == null || instance.display != display)
+				return;
+			if (--instance.active == 0 && !display.isDisposed())
+				display.asyncExec(instance::scheduleIdle);
+		}
+	}
+
+	private final Display display;
+	private final Runnable idleTask = this::idle;
+	private int active;
+	private long idleTimeout;
+
+	private SWTDisplayThread(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+		var created = new Display[1];
+		var error = new Throwable[1];
+		var latch = new CountDownLatch(1);
+		var thread = new Thread(() -> {
+			Display d;
+			try {
+				d = new Display();
+				created[0] = d;
+			} catch (Throwable t) {
+				error[0] = t;
+				return;
+			} finally {
+				latch.countDown();
+			}
+			try {
+				while (!d.isDisposed()) {
+					if (!d.readAndDispatch())
+						d.sleep();
+				}
+			} finally {
+				synchronized (lock) {
+					if (instance != null && instance.display == d)
+						instance = null;
+				}
+			}
+		}, "TwoSlicesSWT");
+		thread.setDaemon(true);
+		thread.start();
+		try {
+			latch.await();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for SWT display.", ie);
+		}
+		if (error[0] != null)
+			throw new UnsupportedOperationException("Could not create SWT display.", error[0]);
+		display = created[0];
+	}
+
+	/*
+	 * Restart the idle timer, cancelling any from an earlier release, so the
+	 * display is always kept for the full timeout after the latest release
+	 */
+	private void scheduleIdle() {
+		long timeout;
+		synchronized (lock) {
+			timeout = idleTimeout;
+		}
+		display.timerExec(-1, idleTask);
+		display.timerExec((int) timeout, idleTask);
+	}
+
+	private void idle() {
+		synchronized (lock) {
+			if (active > 0 || instance != this)
+				return;
+			instance = null;
+		}
+		display.dispose();
+	}
+}
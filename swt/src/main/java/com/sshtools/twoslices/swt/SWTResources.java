@@ -0,0 +1,169 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.swt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+import com.sshtools.twoslices.ToastType;
+
+/**
+ * Registry of the native resources (fonts and images) that are shared by all
+ * popup windows on a {@link Display}. Resources are created the first
+ * time they are needed, and are all disposed exactly once, when the display
+ * itself is disposed. Should only be used on the display's thread.
+ */
+final class SWTResources {
+
+	private final static Map<Display, SWTResources> registry = new HashMap<>();
+
+	/**
+	 * Get the resources for a display, creating the registry if this is the first
+	 * time the display has been seen.
+	 * 
+	 * @param display display
+	 * @return resources
+	 */
+	static SWTResources get(Display display) {
+		synchronized (registry) {
+			var resources = registry.get(display);
+			if (resources == null) {
+				var newResources = new SWTResources(display);
+				display.disposeExec(() -> {
+					synchronized (registry) {
+						registry.remove(display);
+					}
+					newResources.dispose();
+				});
+				registry.put(display, newResources);
+				resources = newResources;
+			}
+			return resources;
+		}
+	}
+
+	private final Display display;
+	private final Map<Integer, Font> fonts = new HashMap<>();
+	private final Map<String, Image> images = new HashMap<>();
+	private SWTAnimator animator;
+
+	private SWTResources(Display display) {
+		this.display = display;
+	}
+
+	/**
+	 * Get the animator shared by all popups on this display.
+	 * 
+	 * @return animator
+	 */
+	SWTAnimator animator() {
+		if (animator == null)
+			animator = new SWTAnimator(display);
+		return animator;
+	}
+
+	/**
+	 * Get the system font, derived to a new height.
+	 * 
+	 * @param height height
+	 * @return font
+	 */
+	Font font(int height) {
+		return fonts.computeIfAbsent(height, k -> {
+			var fontData = display.getSystemFont().getFontData();
+			for (FontData fd : fontData)
+				fd.setHeight(height);
+			return new Font(display, fontData);
+		});
+	}
+
+	/**
+	 * Get the image used on the close button, drawn in the widget colours.
+	 * 
+	 * @return close image
+	 */
+	Image closeImage() {
+		return images.computeIfAbsent("close", k -> createCloseImage(display.getSystemColor(SWT.COLOR_WIDGET_BACKGROUND),
+				display.getSystemColor(SWT.COLOR_WIDGET_FOREGROUND)));
+	}
+
+	/**
+	 * Get the system image for a message type, scaled to a size. Scaled copies are
+	 * cached per type and size. The image must not be disposed by the caller.
+	 * 
+	 * @param type type
+	 * @param size size, or zero for the natural size
+	 * @return image or <code>null</code> if type has no image
+	 */
+	Image typeImage(ToastType type, int size) {
+		var img = systemImage(type);
+		if (img == null || size < 1)
+			return img;
+		var bounds = img.getBounds();
+		if (bounds.width == size && bounds.height == size)
+			return img;
+		return images.computeIfAbsent(type.name() + "-" + size, k -> SWTToaster.PopupWindow.getScaledImage(img, size));
+	}
+
+	private Image systemImage(ToastType type) {
+		switch (type) {
+		case ERROR:
+			return display.getSystemImage(SWT.ICON_ERROR);
+		case WARNING:
+			return display.getSystemImage(SWT.ICON_WARNING);
+		case INFO:
+			return display.getSystemImage(SWT.ICON_INFORMATION);
+		default:
+			return null;
+		}
+	}
+
+	private Image createCloseImage(Color bg, Color fg) {
+		final int size = 11, off = 1;
+		final Image image = new Image(display, size, size);
+		final GC gc = new GC(image);
+		gc.setBackground(bg);
+		gc.fillRectangle(image.getBounds());
+		gc.setForeground(fg);
+		gc.drawLine(0 + off, 0 + off, size - 1 - off, size - 1 - off);
+		gc.drawLine(1 + off, 0 + off, size - 1 - off, size - 2 - off);
+		gc.drawLine(0 + off, 1 + off, size - 2 - off, size - 1 - off);
+		gc.drawLine(size - 1 - off, 0 + off, 0 + off, size - 1 - off);
+		gc.drawLine(size - 1 - off, 1 + off, 1 + off, size - 1 - off);
+		gc.drawLine(size - 2 - off, 0 + off, 0 + off, size - 2 - off);
+		gc.dispose();
+		return image;
+	}
+
+	private void dispose() {
+		if (animator != null)
+			animator.dispose();
+		for (var font : fonts.values())
+			font.dispose();
+		for (var image : images.values())
+			image.dispose();
+		fonts.clear();
+		images.clear();
+	}
+}
@@ -15,21 +15,26 @@
  */
 package com.sshtools.twoslices.swt;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.MouseAdapter;
 import org.eclipse.swt.events.MouseEvent;
-import org.eclipse.swt.events.MouseListener;
-import org.eclipse.swt.graphics.Color;
-import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.GridData;
@@ -38,6 +43,7 @@ import org.eclipse.swt.layout.RowData;
 import org.eclipse.swt.layout.RowLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
@@ -45,12 +51,17 @@ import org.eclipse.swt.widgets.Shell;
 import com.sshtools.twoslices.AbstractToaster;
 import com.sshtools.twoslices.BasicToastHint;
 import com.sshtools.twoslices.Capability;
+import com.sshtools.twoslices.ImageDecoder;
+import com.sshtools.twoslices.ListenerDispatcher;
 import com.sshtools.twoslices.Slice;
+import com.sshtools.twoslices.TimeoutScheduler.Timeout;
 import com.sshtools.twoslices.ToastActionListener;
+import com.sshtools.twoslices.Toast;
 import com.sshtools.twoslices.ToastBuilder;
 import com.sshtools.twoslices.ToastBuilder.ToastAction;
 import com.sshtools.twoslices.ToastType;
 import com.sshtools.twoslices.Toaster;
+import com.sshtools.twoslices.ToasterEvents;
 import com.sshtools.twoslices.ToasterService;
 import com.sshtools.twoslices.ToasterSettings;
 import com.sshtools.twoslices.ToasterSettings.Position;
@@ -96,7 +107,7 @@ public class SWTToaster extends AbstractToaster {
 
 	/**
 	 * Key for {@link ToasterSettings#getProperties()} hint to use animated window
-	 * positioning. This is experimental, as there are some issues.
+	 * positioning.
 	 * 
 	 * Deprecated. Use {@link BasicToastHint#ANIMATED}.
 	 */
@@ -120,9 +131,32 @@ public class SWTToaster extends AbstractToaster {
 		}
 	}
 
-	private Display display;
+	/**
+	 * Minimum number of idle popup shells kept for re-use. This is increased to
+	 * the most that can be visible at once, i.e. the stack threshold plus one for
+	 * the collapsed messages counter.
+	 */
+	private final static int POOL_SIZE = 2;
+
+	/**
+	 * Default maximum number of stacked popups on a monitor before older popups
+	 * are collapsed.
+	 */
+	private final static int DEFAULT_THRESHOLD = 3;
+
+	/**
+	 * Default number of seconds a managed display is kept once no popups are
+	 * showing.
+	 */
+	final static int DEFAULT_IDLE_TIMEOUT = 30;
+
+	private final Deque<PopupShell> pool = new ArrayDeque<>();
+	private final Map<Integer, PopupStack> stacks = new HashMap<>();
+	private final boolean managed;
+	private final long idleTimeout;
+	private int poolCapacity = POOL_SIZE;
+	private volatile Display display;
 	private Shell hidden;
-	private PopupWindow slice;
 
 	/**
 	 * Constructor
@@ -131,8 +165,14 @@ public class SWTToaster extends AbstractToaster {
 	 */
 	public SWTToaster(ToasterSettings configuration) {
 		super(configuration);
+		managed = getHint(BasicToastHint.MANAGED_UI_THREAD, false);
+		idleTimeout = TimeUnit.SECONDS
+				.toMillis((int) getHint(BasicToastHint.UI_THREAD_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT));
 		try {
-			display = Display.getDefault();
+			if (managed)
+				Class.forName("org.eclipse.swt.widgets.Display");
+			else
+				display = Display.getDefault();
 			capabilities.addAll(
 					Arrays.asList(Capability.ACTIONS, Capability.CLOSE, Capability.DEFAULT_ACTION, Capability.IMAGES));
 		} catch (Throwable cnfe) {
@@ -141,28 +181,372 @@ public class SWTToaster extends AbstractToaster {
 	}
 
 	@Override
-	public Slice toast(ToastBuilder builder) {
-		var iconSize =  getHint(builder.hints(), BasicToastHint.ICON_SIZE, PopupWindow.ICON_SIZE);
-		var imageSize =  getHint(builder.hints(), BasicToastHint.IMAGE_SIZE, PopupWindow.IMAGE_SIZE);
-		var offset =  getHint(builder.hints(), BasicToastHint.OFFSET, PopupWindow.DEFAULT_OFFSET);
-		var animated = (boolean) getHint(builder.hints(), BasicToastHint.ANIMATED, false);
-		var idx =  getHint(builder.hints(), BasicToastHint.MONITOR, -1);
-		var newSlice = new PopupWindow(display, builder, configuration, offset, iconSize, imageSize, animated, idx);
+	public Slice toast(Toast toast) {
+		var hints = hints();
+		var toastHints = toast.hints();
+		var iconSize = hints.getInt(toastHints, BasicToastHint.ICON_SIZE, PopupWindow.ICON_SIZE);
+		var imageSize = hints.getInt(toastHints, BasicToastHint.IMAGE_SIZE, PopupWindow.IMAGE_SIZE);
+		var offset = hints.getInt(toastHints, BasicToastHint.OFFSET, PopupWindow.DEFAULT_OFFSET);
+		var animated = hints.getBoolean(toastHints, BasicToastHint.ANIMATED, false);
+		var idx = hints.getInt(toastHints, BasicToastHint.MONITOR, -1);
+		var pixelBudget = ImageDecoder.pixelBudget(hints.getLong(toastHints, BasicToastHint.MAX_IMAGE_PIXELS, 0));
+		var threshold = Math.max(1, hints.getInt(toastHints, BasicToastHint.THRESHOLD, DEFAULT_THRESHOLD));
+		var collapseMessage = hints.getString(toastHints, BasicToastHint.COLLAPSE_MESSAGE,
+				"Collapsed Notifications");
+		var preempt = hints.getBoolean(toastHints, BasicToastHint.PREEMPT, false);
+		var submitted = deferDelivery(toast);
+		var display = display();
+		var newSlice = new PopupWindow(display, toast, configuration, offset, iconSize, imageSize, animated, idx, pixelBudget);
+		newSlice.listeners = listenerDispatcher();
+		manage(newSlice, display);
 		display.asyncExec(() -> {
-			if (hidden == null)
+			if (hidden == null || hidden.isDisposed())
 				hidden = new Shell(display);
-			if (slice != null) {
-				try {
-					slice.close();
-				} catch (IOException e) {
-				}
-			}
-			newSlice.popup(hidden);
-			slice = newSlice;
+			poolCapacity = Math.max(poolCapacity, threshold + 1);
+			stacks.computeIfAbsent(idx, k -> new PopupStack()).add(newSlice, threshold, collapseMessage, preempt, submitted);
 		});
 		return newSlice;
 	}
 
+	/**
+	 * Get the display to show a popup on. When using a managed UI thread, this
+	 * starts the thread if needed and marks the display as in use, so it must be
+	 * balanced by {@link #manage(PopupWindow, Display)}.
+	 */
+	private Display display() {
+		if (managed)
+			display = SWTDisplayThread.acquire(idleTimeout);
+		return display;
+	}
+
+	private void manage(PopupWindow window, Display display) {
+		if (managed)
+			window.released = () -> SWTDisplayThread.release(display);
+	}
+
+	private PopupShell acquireShell() {
+		PopupShell popupShell;
+		while ((popupShell = pool.poll()) != null) {
+			if (!popupShell.shell.isDisposed())
+				return popupShell;
+		}
+		return new PopupShell(hidden, SWTResources.get(display));
+	}
+
+	private static void closeQuietly(PopupWindow window) {
+		try {
+			window.close();
+		} catch (IOException e) {
+		}
+	}
+
+	/**
+	 * Lays out the visible popups on a single monitor as a stack, starting at the
+	 * position the first popup would be shown at. At most <i>threshold</i> popups
+	 * are shown, after which the oldest (or with {@link BasicToastHint#PREEMPT},
+	 * the lowest priority) are closed to make room, and a single
+	 * counter popup shows how many messages were collapsed. When a popup closes,
+	 * the popups after it shift back to fill the gap.
+	 */
+	private final class PopupStack {
+		private final List<PopupWindow> windows = new ArrayList<>();
+		private PopupWindow counter;
+		private int collapsed;
+
+		void add(PopupWindow window, int threshold, String collapseMessage, boolean preempt, long submitted) {
+			var backend = SWTToaster.this.getClass();
+			if (window.isClosed) {
+				metrics().dropped(backend);
+				/* Never shown, so popup() will not release the managed display */
+				window.release();
+				return;
+			}
+			while (windows.size() >= threshold) {
+				var oldest = windows.remove(victim(window, preempt));
+				collapsed++;
+				metrics().coalesced(backend);
+				metrics().closed(backend);
+				closeQuietly(oldest);
+			}
+			layout();
+
+			window.stack = this;
+			window.stackOffset = nextOffset();
+			windows.add(window);
+			window.popup(acquireShell());
+			delivered(submitted);
+			metrics().opened(backend);
+
+			if (collapsed > 0) {
+				var text = String.format("%d more", collapsed);
+				if (counter == null) {
+					var display = display();
+					counter = new PopupWindow(display,
+							new ToastBuilder().type(ToastType.NONE).title(collapseMessage).content(text).build(), configuration,
+							window.offset, window.iconSize, window.imageSize, window.animated, window.monitor,
+							window.pixelBudget);
+					manage(counter, display);
+					counter.stack = this;
+					counter.stackOffset = nextOffset();
+					counter.popup(acquireShell());
+				} else {
+					counter.content(text);
+				}
+			}
+			layout();
+		}
+
+		/*
+		 * The oldest popup, or when preempting, the oldest of those with the lowest
+		 * priority, as long as that is lower than the new popup's
+		 */
+		private int victim(PopupWindow window, boolean preempt) {
+			var idx = 0;
+			if (preempt) {
+				for (int i = 1; i < windows.size(); i++) {
+					if (windows.get(i).priority < windows.get(idx).priority)
+						idx = i;
+				}
+				if (windows.get(idx).priority >= window.priority)
+					return 0;
+			}
+			return idx;
+		}
+
+		void removed(PopupWindow window) {
+			if (window == counter) {
+				counter = null;
+				collapsed = 0;
+			} else if (windows.remove(window)) {
+				metrics().closed(SWTToaster.this.getClass());
+			} else {
+				return;
+			}
+			layout();
+		}
+
+		private int nextOffset() {
+			var offset = 0;
+			for (var w : windows)
+				offset += w.height() + PopupWindow.SPACING;
+			return offset;
+		}
+
+		private void layout() {
+			var offset = 0;
+			for (var w : windows) {
+				w.restack(offset);
+				offset += w.height() + PopupWindow.SPACING;
+			}
+			if (counter != null)
+				counter.restack(offset);
+		}
+	}
+
+	/**
+	 * A pre-built popup window, that is re-skinned for each {@link PopupWindow}
+	 * that uses it, and returned to a pool when that message is closed. This
+	 * avoids creating and disposing a shell and all of its widgets and native
+	 * resources for every message.
+	 */
+	private final class PopupShell {
+
+		private final Shell shell;
+		private final Label iconLabel;
+		private final Label titleLabel;
+		private final Label imageLabel;
+		private final Label contentLabel;
+		private final Composite actionsWidget;
+		private final List<Button> actionButtons = new ArrayList<>();
+		private final List<Image> toastImages = new ArrayList<>();
+		private final SWTResources resources;
+		private PopupWindow window;
+
+		PopupShell(Shell hidden, SWTResources resources) {
+			this.resources = resources;
+
+			var defaultListener = new MouseAdapter() {
+				@Override
+				public void mouseUp(MouseEvent e) {
+					if (window != null)
+						window.defaultAction();
+				}
+			};
+
+			shell = new Shell(hidden, SWT.ON_TOP);
+
+			var topRow = new Composite(shell, SWT.NONE);
+			var topLayout = new GridLayout();
+			topLayout.numColumns = 3;
+			topRow.setLayout(topLayout);
+			topRow.addMouseListener(defaultListener);
+
+			iconLabel = new Label(topRow, SWT.NONE);
+			iconLabel.setLayoutData(new GridData());
+
+			titleLabel = new Label(topRow, SWT.NONE);
+			var titleData = new GridData();
+			titleData.grabExcessHorizontalSpace = true;
+			titleData.grabExcessVerticalSpace = true;
+			titleLabel.setLayoutData(titleData);
+			titleLabel.setFont(resources.font(14));
+
+			var close = new Button(topRow, SWT.NONE);
+			var data = new GridData();
+			data.widthHint = 24;
+			data.heightHint = 24;
+			close.setLayoutData(data);
+			close.setImage(resources.closeImage());
+			close.addListener(SWT.Selection, e -> {
+				if (window != null) {
+					try {
+						window.close();
+					} catch (IOException ioe) {
+					}
+				}
+			});
+
+			var contentPane = new Composite(shell, SWT.NONE);
+			var contentPaneLayout = new RowLayout(SWT.HORIZONTAL);
+			contentPaneLayout.spacing = PopupWindow.SPACING;
+			contentPane.setLayout(contentPaneLayout);
+
+			imageLabel = new Label(contentPane, SWT.NONE);
+			imageLabel.setLayoutData(new RowData());
+
+			contentLabel = new Label(contentPane, SWT.WRAP);
+			contentLabel.setLayoutData(new RowData());
+			contentLabel.addMouseListener(defaultListener);
+
+			actionsWidget = new Composite(shell, SWT.NONE);
+			var actionsRow = new RowLayout(SWT.HORIZONTAL);
+			actionsRow.spacing = PopupWindow.SPACING;
+			actionsRow.wrap = false;
+			actionsRow.fill = true;
+			actionsRow.justify = false;
+			actionsWidget.setLayout(actionsRow);
+			actionsWidget.setLayoutData(new RowData());
+
+			shell.addMouseListener(defaultListener);
+			shell.addDisposeListener(e -> {
+				disposeToastImages();
+				if (window != null) {
+					var w = window;
+					window = null;
+					w.disposed();
+				}
+			});
+
+			var mainRow = new RowLayout(SWT.VERTICAL);
+			mainRow.wrap = false;
+			mainRow.fill = true;
+			mainRow.justify = false;
+			mainRow.spacing = PopupWindow.SPACING;
+			mainRow.marginTop = mainRow.marginBottom = mainRow.marginLeft = mainRow.marginRight = PopupWindow.SPACING;
+			shell.setLayout(mainRow);
+		}
+
+		void skin(PopupWindow window) {
+			this.window = window;
+
+			Image icon = null;
+			if (window.icon != null) {
+				icon = window.loadImage(window.icon, window.iconSize);
+				if (window.iconSize > 0)
+					icon = window.proportionalImage(window.iconSize, icon);
+				toastImages.add(icon);
+			} else if (window.type != ToastType.NONE) {
+				icon = resources.typeImage(window.type, window.iconSize);
+			}
+			iconLabel.setImage(icon);
+			if (icon != null) {
+				var data = (GridData) iconLabel.getLayoutData();
+				data.widthHint = icon.getBounds().width;
+				data.heightHint = icon.getBounds().height;
+			}
+			setVisible(iconLabel, icon != null);
+
+			titleLabel.setText(window.title == null ? "" : window.title);
+			setVisible(titleLabel, window.title != null);
+
+			int imageSpace = 0;
+			Image image = null;
+			if (window.image != null) {
+				image = window.loadImage(window.image, window.imageSize);
+				if (window.imageSize > 0)
+					image = window.proportionalImage(window.imageSize, image);
+				toastImages.add(image);
+				var data = (RowData) imageLabel.getLayoutData();
+				data.width = image.getBounds().width;
+				data.height = image.getBounds().height;
+				imageSpace = image.getBounds().width;
+			}
+			imageLabel.setImage(image);
+			setVisible(imageLabel, image != null);
+
+			contentLabel.setText(window.content == null ? "" : window.content);
+			((RowData) contentLabel.getLayoutData()).width = PopupWindow.TEXT_WIDTH - imageSpace;
+			setVisible(contentLabel, window.content != null);
+
+			var actions = window.actions;
+			for (int i = 0; i < actions.size(); i++) {
+				Button actionButton;
+				if (i < actionButtons.size()) {
+					actionButton = actionButtons.get(i);
+				} else {
+					actionButton = new Button(actionsWidget, SWT.NONE);
+					actionButton.setLayoutData(new RowData());
+					var index = i;
+					actionButton.addListener(SWT.Selection, e -> {
+						if (this.window != null)
+							this.window.action(index);
+					});
+					actionButtons.add(actionButton);
+				}
+				var action = actions.get(i);
+				actionButton.setText(action.displayName());
+				actionButton.setEnabled(action.listener() != null);
+				setVisible(actionButton, true);
+			}
+			for (int i = actions.size(); i < actionButtons.size(); i++)
+				setVisible(actionButtons.get(i), false);
+			setVisible(actionsWidget, !actions.isEmpty());
+
+			shell.pack(true);
+			shell.layout(true, true);
+		}
+
+		void recycle() {
+			window = null;
+			if (shell.isDisposed())
+				return;
+			resources.animator().cancel(shell);
+			shell.setVisible(false);
+			iconLabel.setImage(null);
+			imageLabel.setImage(null);
+			disposeToastImages();
+			if (pool.size() < poolCapacity)
+				pool.push(this);
+			else
+				shell.dispose();
+		}
+
+		private void disposeToastImages() {
+			for (var img : toastImages)
+				img.dispose();
+			toastImages.clear();
+		}
+
+		private void setVisible(Control control, boolean visible) {
+			var data = control.getLayoutData();
+			if (data instanceof GridData)
+				((GridData) data).exclude = !visible;
+			else if (data instanceof RowData)
+				((RowData) data).exclude = !visible;
+			control.setVisible(visible);
+		}
+	}
+
 	public static class PopupWindow implements Slice {
 
 		private static final int TEXT_WIDTH = 400;
@@ -172,16 +556,15 @@ public class SWTToaster extends AbstractToaster {
 		private static final int SPACING = 8;
 		private static final int ANIMATION_TIME = 250;
 
+		private PopupShell popupShell;
+		private Runnable released;
+		private ListenerDispatcher listeners;
+		private PopupStack stack;
+		private int stackOffset;
 		private Shell shell;
-		private Label titleLabel;
-		private Label contentLabel;
-		private Label iconLabel;
 		private ToasterSettings settings;
 		private Display display;
-		private long animStarted;
-		private Point endPosition;
-		private Point startPosition;
-		private Thread timerThread;
+		private Timeout timer;
 		private Thread swtThread;
 		private ToastAction defaultAction;
 		private boolean isClosed;
@@ -189,7 +572,7 @@ public class SWTToaster extends AbstractToaster {
 		private final ToastType type;
 		private final String image;
 		private final String title;
-		private final String content;
+		private String content;
 		private final List<ToastAction> actions;
 		private final ToastActionListener closed;
 		private final int timeout;
@@ -198,9 +581,12 @@ public class SWTToaster extends AbstractToaster {
 		private final int imageSize;
 		private final boolean animated;
 		private final int monitor;
+		private final long pixelBudget;
+		private final int priority;
 
-		public PopupWindow(Display display, ToastBuilder builder, ToasterSettings settings, int offset, int iconSize, int imageSize, boolean animated, int monitor) {
+		public PopupWindow(Display display, Toast toast, ToasterSettings settings, int offset, int iconSize, int imageSize, boolean animated, int monitor, long pixelBudget) {
 			this.settings = settings;
+			this.pixelBudget = pixelBudget;
 			this.display = display;
 			this.offset = offset;
 			this.iconSize = iconSize;
@@ -208,202 +594,105 @@ public class SWTToaster extends AbstractToaster {
 			this.animated = animated;
 			this.monitor = monitor;
 			
-			defaultAction = builder.defaultAction();
-			icon = builder.icon();
-			type = builder.type();
-			title = builder.title();
-			image = builder.image();
-			content = builder.content();
-			actions = Collections.unmodifiableList(builder.actions());
-			closed = builder.closed();
-			timeout = builder.timeout();
-			
+			defaultAction = toast.defaultAction();
+			icon = toast.icon();
+			type = toast.type();
+			title = toast.title();
+			image = toast.image();
+			content = toast.content();
+			actions = toast.actions();
+			closed = toast.closed();
+			timeout = toast.timeout();
+			priority = toast.priority();
 		}
 
-		public void popup(Shell hidden) {
+		void popup(PopupShell popupShell) {
 			swtThread = Thread.currentThread();
-			var defaultListener = new MouseListener() {
-				@Override
-				public void mouseUp(MouseEvent e) {
-					if (defaultAction != null && defaultAction.listener() != null)
-						defaultAction.listener().action();
-				}
-
-				@Override
-				public void mouseDown(MouseEvent e) {
-				}
-
-				@Override
-				public void mouseDoubleClick(MouseEvent e) {
-				}
-			};
-
-			shell = new Shell(hidden, SWT.ON_TOP);
+			if (isClosed) {
+				popupShell.recycle();
+				release();
+				return;
+			}
+			this.popupShell = popupShell;
+			shell = popupShell.shell;
+			popupShell.skin(this);
+			show();
+			startTimer();
+		}
 
-			var topRow = new Composite(shell, SWT.NONE);
-			var topLayout = new GridLayout();
-			topLayout.numColumns = 3;
-			topRow.setLayout(topLayout);
-			topRow.addMouseListener(defaultListener);
+		void defaultAction() {
+			ToasterEvents.interaction(SWTToaster.class, ToasterEvents.KIND_DEFAULT_ACTION, null);
+			if (defaultAction != null && defaultAction.listener() != null)
+				dispatch(defaultAction.listener()::action);
+		}
 
+		void action(int index) {
+			var action = actions.get(index);
+			ToasterEvents.interaction(SWTToaster.class, ToasterEvents.KIND_ACTION, action.displayName());
+			if (action.listener() != null)
+				dispatch(action.listener()::action);
+		}
 
-			if (icon != null) {
-				iconLabel = new Label(topRow, SWT.NONE);
-				var data = new GridData();
-				data.widthHint = 24;
-				data.heightHint = 24;
-				iconLabel.setLayoutData(data);
-				
-				Image image = null;
-				try {
-					var u = new URL(icon);
-					try(var in = u.openStream()) {
-						image = new Image(display, in);
-					}
-				}
-				catch(Exception e) {
-					image = new Image(display, icon);
+		void disposed() {
+			popupShell = null;
+			if (!isClosed) {
+				isClosed = true;
+				if (timer != null) {
+					timer.cancel();
+					timer = null;
 				}
-
-				if(iconSize > 0)
-					image = proportionalImage(iconSize, image);
-				var fImage = image;
-				shell.addDisposeListener((e) -> fImage.dispose());
-				iconLabel.setImage(image);
-				data.widthHint = image.getImageData().width;
-				data.heightHint = image.getImageData().height;
-				iconLabel.pack();
-			}
-			else if (type != ToastType.NONE) {
-				iconLabel = new Label(topRow, SWT.NONE);
-				var data = new GridData();
-				data.widthHint = 24;
-				data.heightHint = 24;
-				iconLabel.setLayoutData(data);
-				var img = getTypeImage(type);
-				if(iconSize > 0)
-					img  = getScaledImage(img, iconSize);
-				var fImage = img;
-				shell.addDisposeListener((e) -> fImage.dispose());
-				data.widthHint = img.getImageData().width;
-				data.heightHint = img.getImageData().height;
-				iconLabel.setImage(img);
-				iconLabel.pack();
+				if (stack != null)
+					stack.removed(this);
+				ToasterEvents.interaction(SWTToaster.class, ToasterEvents.KIND_CLOSED, null);
+				if (closed != null)
+					dispatch(closed::action);
+				release();
 			}
+		}
 
-			if (title != null) {
-				titleLabel = new Label(topRow, SWT.NONE);
-				var data = new GridData();
-				data.grabExcessHorizontalSpace = true;
-				data.grabExcessVerticalSpace = true;
-				titleLabel.setLayoutData(data);
-				titleLabel.setText(title);
-				titleLabel.setFont(createDerivedFont(titleLabel, 16));
-				titleLabel.pack();
+		void content(String content) {
+			this.content = content;
+			if (popupShell != null && !isClosed) {
+				popupShell.skin(this);
+				shell.setLocation(to());
+				if (timer != null)
+					timer.cancel();
+				startTimer();
 			}
+		}
 
-			var close = new Button(topRow, SWT.NONE);
-			var data = new GridData();
-			data.widthHint = 24;
-			data.heightHint = 24;
-			close.setLayoutData(data);
-			close.setImage(createCloseImage(display, display.getSystemColor(SWT.COLOR_WIDGET_BACKGROUND),
-					display.getSystemColor(SWT.COLOR_WIDGET_FOREGROUND)));
-			close.addListener(SWT.Selection, e -> {
-				shell.dispose();
-			});
-
-			int imageSpace = 0;
+		void restack(int stackOffset) {
+			if (this.stackOffset == stackOffset)
+				return;
+			this.stackOffset = stackOffset;
+			if (popupShell != null && !isClosed)
+				animateTo(to());
+		}
 
-			var contentPane = new Composite(shell, SWT.NONE);
-			var contentPaneLayout = new RowLayout(SWT.HORIZONTAL);
-			contentPaneLayout.spacing = SPACING;
-			contentPane.setLayout(contentPaneLayout);
+		int height() {
+			return popupShell == null || isClosed ? 0 : shell.getSize().y;
+		}
 
-			if (image != null) {
-				var imageLabel = new Label(contentPane, SWT.NONE);
-				Image imageObj = null;
+		private Image loadImage(String pathOrURL, int size) {
+			try {
+				/*
+				 * Decode with subsampling via ImageIO so the full resolution image is never
+				 * held in memory
+				 */
+				return new Image(display, toImageData(ImageDecoder.decode(pathOrURL, size, pixelBudget).image()));
+			} catch (Exception e) {
+				/* Format not supported by ImageIO, let SWT decode it */
 				try {
-					var u = new URL(image);
-					try(var in = u.openStream()) {
-						imageObj = new Image(display, in);
-					}
-				}
-				catch(Exception e) {
-					imageObj = new Image(display, image);
-				}
-				
-				if(imageSize > 0)
-					imageObj = proportionalImage(imageSize, imageObj);
-				imageLabel.setImage(imageObj);
-				var imageData = new RowData(imageObj.getImageData().width, imageObj.getImageData().height);
-				imageLabel.setLayoutData(imageData);
-				imageLabel.pack();
-				imageSpace = imageObj.getImageData().width;
-			}
-
-			int textWidth = image == null ? TEXT_WIDTH : TEXT_WIDTH - imageSpace;
-
-			if (content != null) {
-				contentLabel = new Label(contentPane, SWT.WRAP);
-				contentLabel.setText(content);
-				var contentData = new RowData();
-				contentData.width = textWidth;
-				contentLabel.setLayoutData(contentData);
-				contentLabel.pack();
-				contentLabel.addListener(SWT.Modify, event -> {
-					int currentHeight = contentLabel.getSize().y;
-					int preferredHeight = contentLabel.computeSize(textWidth, SWT.DEFAULT).y;
-					if (currentHeight != preferredHeight) {
-						contentData.height = preferredHeight;
-						contentLabel.pack();
-						shell.pack();
-						shell.setLocation(to());
+					var u = new URL(pathOrURL);
+					try (var in = u.openStream()) {
+						return new Image(display, in);
 					}
-				});
-				contentLabel.addMouseListener(defaultListener);
-			}
-
-			if (!actions.isEmpty()) {
-				var actionsWidget = new Composite(shell, SWT.NONE);
-				var actionsRow = new RowLayout(SWT.HORIZONTAL);
-				actionsRow.spacing = SPACING;
-				actionsRow.wrap = false;
-				actionsRow.fill = true;
-				actionsRow.justify = false;
-				actionsWidget.setLayout(actionsRow);
-				for (var action : actions) {
-					var actionButton = new Button(actionsWidget, SWT.NONE);
-					actionButton.setText(action.displayName());
-					if (action.listener() == null)
-						actionButton.setGrayed(true);
-					else
-						actionButton.addListener(SWT.Selection, e -> {
-							action.listener().action();
-						});
+				} catch (Exception e2) {
+					return new Image(display, pathOrURL);
 				}
 			}
-			shell.addMouseListener(defaultListener);
-
-			if (closed != null) {
-				shell.addDisposeListener((e) -> {
-					closed.action();
-				});
-			}
-
-			var mainRow = new RowLayout(SWT.VERTICAL);
-			mainRow.wrap = false;
-			mainRow.fill = true;
-			mainRow.justify = false;
-			mainRow.spacing = SPACING;
-			mainRow.marginTop = mainRow.marginBottom = mainRow.marginLeft = mainRow.marginRight = SPACING;
-			shell.setLayout(mainRow);
-			shell.pack();
-
-			show();
-			startTimer();
 		}
-		
+
 		private Image proportionalImage(int size, Image image) {
 			var imageWidth = image.getBounds().width;
 			var imageHeight = image.getBounds().height;
@@ -426,28 +715,18 @@ public class SWTToaster extends AbstractToaster {
 		private void startTimer() {
 			if (timeout == 0)
 				return;
-			timerThread = new Thread() {
-				public void run() {
-					try {
-						Thread.sleep((timeout == -1 ? settings.getTimeout() : timeout) * 1000);
-						try {
-							close();
-						} catch (IOException e) {
-						}
-					} catch (InterruptedException ie) {
-					}
+			timer = settings.getScheduler().schedule(() -> {
+				try {
+					close();
+				} catch (IOException e) {
 				}
-			};
-			timerThread.start();
+			}, timeout == -1 ? settings.getTimeout() : timeout, TimeUnit.SECONDS, display::asyncExec);
 		}
 
 		private void show() {
 			if (animated) {
-				animStarted = System.currentTimeMillis();
-				startPosition = from();
-				shell.setLocation(startPosition);
-				endPosition = to();
-				animCycle();
+				shell.setLocation(from());
+				animateTo(to());
 				shell.open();
 			} else {
 				try {
@@ -459,16 +738,11 @@ public class SWTToaster extends AbstractToaster {
 			}
 		}
 
-		private void animCycle() {
-			var now = System.currentTimeMillis();
-			var time = now - animStarted;
-			var progress = Math.min(1f, (double) time / (double) ANIMATION_TIME);
-			var ax = startPosition.x + (int) (((float) endPosition.x - (float) startPosition.x) * progress);
-			var ay = startPosition.y + (int) (((float) endPosition.y - (float) startPosition.y) * progress);
-			shell.setLocation(ax, ay);
-			if (progress < 1) {
-				display.asyncExec(() -> animCycle());
-			}
+		private void animateTo(Point target) {
+			if (animated)
+				popupShell.resources.animator().move(shell, target, ANIMATION_TIME);
+			else
+				shell.setLocation(target);
 		}
 
 		private Point from() {
@@ -506,6 +780,21 @@ public class SWTToaster extends AbstractToaster {
 		}
 
 		private Point to() {
+			var home = home();
+			switch (calcPos()) {
+			case BL:
+			case B:
+			case BR:
+				home.y -= stackOffset;
+				break;
+			default:
+				home.y += stackOffset;
+				break;
+			}
+			return home;
+		}
+
+		private Point home() {
 			var bounds = getMonitorBounds();
 			var sz = shell.getSize();
 			switch (calcPos()) {
@@ -544,28 +833,20 @@ public class SWTToaster extends AbstractToaster {
 			return pos;
 		}
 
-		private Image getTypeImage(ToastType type) {
-			var d = Display.getDefault();
-			switch (type) {
-			case ERROR:
-				return d.getSystemImage(SWT.ICON_ERROR);
-			case WARNING:
-				return d.getSystemImage(SWT.ICON_WARNING);
-			case INFO:
-				return d.getSystemImage(SWT.ICON_INFORMATION);
-			default:
-				return null;
+		static ImageData toImageData(BufferedImage image) {
+			var width = image.getWidth();
+			var height = image.getHeight();
+			var argb = image.getRGB(0, 0, width, height, null, 0, width);
+			var data = new ImageData(width, height, 24, new PaletteData(0xFF0000, 0x00FF00, 0x0000FF));
+			for (int y = 0; y < height; y++)
+				data.setPixels(0, y, width, argb, y * width);
+			if (image.getColorModel().hasAlpha()) {
+				var alpha = new byte[argb.length];
+				for (int i = 0; i < argb.length; i++)
+					alpha[i] = (byte) (argb[i] >>> 24);
+				data.alphaData = alpha;
 			}
-		}
-
-		static Font createDerivedFont(Label base, int newSize) {
-			FontData[] fontData = base.getFont().getFontData();
-			for (int i = 0; i < fontData.length; ++i)
-				fontData[i].setHeight(14);
-
-			final Font newFont = new Font(base.getDisplay(), fontData);
-			base.addDisposeListener((e) -> newFont.dispose());
-			return newFont;
+			return data;
 		}
 
 		static Image getScaledImage(Image image, int sz) {
@@ -604,32 +885,17 @@ public class SWTToaster extends AbstractToaster {
 		    return dest;
 		}
 
-		private static final Image createCloseImage(Display display, Color bg, Color fg) {
-			final int size = 11, off = 1;
-			final Image image = new Image(display, size, size);
-			final GC gc = new GC(image);
-			gc.setBackground(bg);
-			gc.fillRectangle(image.getBounds());
-			gc.setForeground(fg);
-			gc.drawLine(0 + off, 0 + off, size - 1 - off, size - 1 - off);
-			gc.drawLine(1 + off, 0 + off, size - 1 - off, size - 2 - off);
-			gc.drawLine(0 + off, 1 + off, size - 2 - off, size - 1 - off);
-			gc.drawLine(size - 1 - off, 0 + off, 0 + off, size - 1 - off);
-			gc.drawLine(size - 1 - off, 1 + off, 1 + off, size - 1 - off);
-			gc.drawLine(size - 2 - off, 0 + off, 0 + off, size - 2 - off);
-			gc.dispose();
-			return image;
-		}
-
 		@Override
 		public void close() throws IOException {
-			if (timerThread != null && timerThread != Thread.currentThread()) {
-				timerThread.interrupt();
-				timerThread = null;
+			if (timer != null) {
+				timer.cancel();
+				timer = null;
 			}
-			if (swtThread == null || isClosed)
+			if (isClosed)
 				return;
 			isClosed = true;
+			if (swtThread == null)
+				return;
 			if (Thread.currentThread() != swtThread)
 				display.asyncExec(() -> doClose());
 			else
@@ -637,8 +903,31 @@ public class SWTToaster extends AbstractToaster {
 		}
 
 		private void doClose() {
-			if (!shell.isDisposed())
-				shell.dispose();
+			if (popupShell != null) {
+				popupShell.recycle();
+				popupShell = null;
+			}
+			if (stack != null)
+				stack.removed(this);
+			ToasterEvents.interaction(SWTToaster.class, ToasterEvents.KIND_CLOSED, null);
+			if (closed != null)
+				dispatch(closed::action);
+			release();
+		}
+
+		private void dispatch(Runnable listener) {
+			if (listeners == null)
+				listener.run();
+			else
+				listeners.dispatch(listener);
+		}
+
+		private void release() {
+			if (released != null) {
+				var r = released;
+				released = null;
+				r.run();
+			}
 		}
 	}
 }
@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.swt;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.swt.widgets.Display;
+import org.junit.Test;
+
+import com.sshtools.twoslices.BasicToastHint;
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToasterSettings;
+
+/**
+ * Tests for the managed display used by {@link SWTToaster} with
+ * {@link BasicToastHint#MANAGED_UI_THREAD}.
+ */
+public class SWTDisplayThreadTest {
+
+	@Test
+	public void testIdleTimeoutRestartsOnReacquire() throws Exception {
+		var display = SWTDisplayThread.acquire(500);
+		SWTDisplayThread.release(display);
+		Thread.sleep(300);
+		assertTrue(SWTDisplayThread.acquire(500) == display);
+		SWTDisplayThread.release(display);
+		/* The timer from the first release would have fired by now */
+		Thread.sleep(300);
+		assertFalse(display.isDisposed());
+		assertTrue(waitForDisposal(display));
+	}
+
+	@Test
+	public void testClosedBeforeShownReleasesDisplay() throws Exception {
+		var display = SWTDisplayThread.acquire(500);
+		var blocked = new CountDownLatch(1);
+		/* Hold up the UI thread so the message is closed before it is shown */
+		display.asyncExec(() -> {
+			try {
+				blocked.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+			}
+		});
+		var settings = new ToasterSettings();
+		settings.getHints().put(BasicToastHint.MANAGED_UI_THREAD, true);
+		settings.getHints().put(BasicToastHint.UI_THREAD_IDLE_TIMEOUT, 0);
+		var slice = new ToastBuilder().toaster(new SWTToaster(settings)).title("Title").content("Content").toast();
+		slice.close();
+		blocked.countDown();
+		SWTDisplayThread.release(display);
+		assertTrue(waitForDisposal(display));
+	}
+
+	@Test
+	public void testKeepsLongestIdleTimeout() throws Exception {
+		var display = SWTDisplayThread.acquire(200);
+		SWTDisplayThread.acquire(1000);
+		SWTDisplayThread.release(display);
+		SWTDisplayThread.release(display);
+		Thread.sleep(500);
+		assertFalse(display.isDisposed());
+		assertTrue(waitForDisposal(display));
+	}
+
+	@Test
+	public void testClosingTrayToasterReleasesDisplay() throws Exception {
+		var settings = new ToasterSettings();
+		settings.getHints().put(BasicToastHint.MANAGED_UI_THREAD, true);
+		settings.getHints().put(BasicToastHint.UI_THREAD_IDLE_TIMEOUT, 0);
+		var toaster = new BasicSWTToaster(settings);
+		var display = SWTDisplayThread.acquire(0);
+		SWTDisplayThread.release(display);
+		toaster.close();
+		assertTrue(waitForDisposal(display));
+	}
+
+	private static boolean waitForDisposal(Display display) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (display.isDisposed())
+				return true;
+			Thread.sleep(50);
+		}
+		return false;
+	}
+}
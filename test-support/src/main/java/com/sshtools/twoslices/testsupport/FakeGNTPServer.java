@@ -0,0 +1,263 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.testsupport;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sshtools.twoslices.BasicToastHint;
+import com.sshtools.twoslices.ToastType;
+import com.sshtools.twoslices.ToasterSettings;
+
+/**
+ * A GNTP server on an ephemeral port that accepts requests, optionally after a
+ * delay, and can be made to fail some of them. Point a
+ * <code>GNTPToaster</code> at it using {@link #configure(ToasterSettings)}.
+ * <p>
+ * Each connection is handled on its own thread, so concurrent clients are not
+ * serialised by the server.
+ */
+public final class FakeGNTPServer implements Closeable {
+
+	/**
+	 * How an injected failure is presented to the client.
+	 */
+	public enum Failure {
+		/**
+		 * Reply with a GNTP <code>-ERROR</code> response.
+		 */
+		ERROR_RESPONSE,
+		/**
+		 * Close the connection without replying.
+		 */
+		DISCONNECT
+	}
+
+	private final ServerSocket server;
+	private final ExecutorService executor;
+	private final AtomicInteger registered = new AtomicInteger();
+	private final AtomicInteger received = new AtomicInteger();
+	private final AtomicInteger delivered = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+	private final AtomicInteger openConnections = new AtomicInteger();
+
+	private volatile long latency;
+	private volatile int failEvery;
+	private volatile Failure failure = Failure.ERROR_RESPONSE;
+
+	/**
+	 * Constructor. The server is started immediately.
+	 *
+	 * @throws IOException on error
+	 */
+	public FakeGNTPServer() throws IOException {
+		server = new ServerSocket(0);
+		executor = Executors.newCachedThreadPool(r -> {
+			var t = new Thread(r, "FakeGNTP");
+			t.setDaemon(true);
+			return t;
+		});
+		executor.execute(this::accept);
+	}
+
+	/**
+	 * Get the port the server is listening on.
+	 *
+	 * @return port
+	 */
+	public int port() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Set the hints in the settings needed for a toaster to use this server.
+	 *
+	 * @param settings settings
+	 * @return settings for chaining
+	 */
+	public ToasterSettings configure(ToasterSettings settings) {
+		settings.getHints().put(BasicToastHint.GNTP_PORT, port());
+		return settings;
+	}
+
+	/**
+	 * Set how long to wait before replying to each request.
+	 *
+	 * @param latency latency in milliseconds
+	 * @return this for chaining
+	 */
+	public FakeGNTPServer latency(long latency) {
+		this.latency = latency;
+		return this;
+	}
+
+	/**
+	 * Fail every <code>n</code>th notification request. Registration is never
+	 * failed.
+	 *
+	 * @param n interval, or zero to never fail
+	 * @return this for chaining
+	 */
+	public FakeGNTPServer failEvery(int n) {
+		this.failEvery = n;
+		return this;
+	}
+
+	/**
+	 * Set how failures are presented, defaults to {@link Failure#ERROR_RESPONSE}.
+	 *
+	 * @param failure failure
+	 * @return this for chaining
+	 */
+	public FakeGNTPServer failure(Failure failure) {
+		this.failure = failure;
+		return this;
+	}
+
+	/**
+	 * Get the number of registration requests received.
+	 *
+	 * @return registrations
+	 */
+	public int registered() {
+		return registered.get();
+	}
+
+	/**
+	 * Get the number of notification requests received.
+	 *
+	 * @return requests
+	 */
+	public int received() {
+		return received.get();
+	}
+
+	/**
+	 * Get the number of notification requests that were accepted.
+	 *
+	 * @return delivered
+	 */
+	public int delivered() {
+		return delivered.get();
+	}
+
+	/**
+	 * Get the number of notification requests that were failed by injection.
+	 *
+	 * @return failed
+	 */
+	public int failed() {
+		return failed.get();
+	}
+
+	/**
+	 * Get the number of client connections currently open. Clients that do not
+	 * close their connections will show here.
+	 *
+	 * @return open connections
+	 */
+	public int openConnections() {
+		return openConnections.get();
+	}
+
+	/**
+	 * Reset all counters to zero.
+	 */
+	public void reset() {
+		registered.set(0);
+		received.set(0);
+		delivered.set(0);
+		failed.set(0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			server.close();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void accept() {
+		while (!server.isClosed()) {
+			try {
+				var socket = server.accept();
+				openConnections.incrementAndGet();
+				executor.execute(() -> {
+					try (socket) {
+						handle(socket);
+					} catch (IOException ioe) {
+					} finally {
+						openConnections.decrementAndGet();
+					}
+				});
+			} catch (IOException ioe) {
+			}
+		}
+	}
+
+	private void handle(Socket socket) throws IOException {
+		var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+		var request = in.readLine();
+		if (request == null)
+			return;
+		var register = request.contains(" REGISTER ");
+		/* REGISTER has a header block plus one block per notification type */
+		var blocks = register ? ToastType.values().length + 1 : 1;
+		String line;
+		while (blocks > 0 && (line = in.readLine()) != null) {
+			if (line.isEmpty())
+				blocks--;
+		}
+		if (latency > 0) {
+			try {
+				Thread.sleep(latency);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		String response;
+		if (register) {
+			registered.incrementAndGet();
+			response = "GNTP/1.0 -OK NONE\r\n\r\n";
+		} else {
+			var n = received.incrementAndGet();
+			var every = failEvery;
+			if (every > 0 && n % every == 0) {
+				failed.incrementAndGet();
+				if (failure == Failure.DISCONNECT)
+					return;
+				response = "GNTP/1.0 -ERROR NONE\r\nError-Code: 500\r\nError-Description: Injected failure\r\n\r\n";
+			} else {
+				delivered.incrementAndGet();
+				response = "GNTP/1.0 -OK NONE\r\n\r\n";
+			}
+		}
+		var out = socket.getOutputStream();
+		out.write(response.getBytes(StandardCharsets.UTF_8));
+		out.flush();
+	}
+}
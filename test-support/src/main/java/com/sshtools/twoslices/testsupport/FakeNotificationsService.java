@@ -0,0 +1,452 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.testsupport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.freedesktop.dbus.bin.EmbeddedDBusDaemon;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.connections.impl.DBusConnectionBuilder;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.messages.DBusSignal;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.Variant;
+
+import com.sshtools.twoslices.impl.DBUSNotifyToaster.Notifications;
+
+/**
+ * An in-process DBus daemon with a fake <code>org.freedesktop.Notifications</code>
+ * service on it, that records every call and can emit the signals a real
+ * notification server would. While running, the
+ * <code>DBUS_SESSION_BUS_ADDRESS</code> system property points at the daemon,
+ * so a <code>DBUSNotifyToaster</code> created in this JVM connects to it rather
+ * than the real session bus.
+ * <p>
+ * Notifications are considered open from when they are shown until a
+ * <code>NotificationClosed</code> or <code>ActionInvoked</code> signal is
+ * emitted for them. Any still open at the end of a test have leaked, see
+ * {@link #open()}.
+ */
+public final class FakeNotificationsService implements Closeable {
+
+	/**
+	 * Reason a notification was closed, as sent in the
+	 * <code>NotificationClosed</code> signal.
+	 */
+	public enum Reason {
+		EXPIRED, DISMISSED, CLOSED, UNDEFINED;
+
+		int code() {
+			return ordinal() + 1;
+		}
+	}
+
+	/**
+	 * A call to <code>Notify</code>.
+	 */
+	public final static class Notification {
+		private final int id;
+		private final String appName;
+		private final String icon;
+		private final String summary;
+		private final String body;
+		private final List<String> actions;
+		private final Map<String, Object> hints;
+		private final int timeout;
+
+		Notification(int id, String appName, String icon, String summary, String body, List<String> actions,
+				Map<String, Variant<?>> hints, int timeout) {
+			this.id = id;
+			this.appName = appName;
+			this.icon = icon;
+			this.summary = summary;
+			this.body = body;
+			this.actions = List.copyOf(actions);
+			var values = new LinkedHashMap<String, Object>();
+			hints.forEach((k, v) -> values.put(k, v.getValue()));
+			this.hints = Collections.unmodifiableMap(values);
+			this.timeout = timeout;
+		}
+
+		public int id() {
+			return id;
+		}
+
+		public String appName() {
+			return appName;
+		}
+
+		public String icon() {
+			return icon;
+		}
+
+		public String summary() {
+			return summary;
+		}
+
+		public String body() {
+			return body;
+		}
+
+		/**
+		 * Get the actions, as alternating keys and labels.
+		 *
+		 * @return actions
+		 */
+		public List<String> actions() {
+			return actions;
+		}
+
+		public Map<String, Object> hints() {
+			return hints;
+		}
+
+		public int timeout() {
+			return timeout;
+		}
+	}
+
+	private final static String PATH = "/org/freedesktop/Notifications";
+
+	private final Path dir;
+	private final String address;
+	private final EmbeddedDBusDaemon daemon;
+	private final DBusConnection conn;
+	private final Service service = new Service();
+	private final AtomicInteger ids = new AtomicInteger();
+	private final AtomicInteger closeRequests = new AtomicInteger();
+	private final AtomicInteger closed = new AtomicInteger();
+	private final AtomicInteger actionsInvoked = new AtomicInteger();
+	private final AtomicInteger replies = new AtomicInteger();
+	private final AtomicInteger dropped = new AtomicInteger();
+	private final List<Notification> notifications = new ArrayList<>();
+	private final Map<Integer, Notification> open = new LinkedHashMap<>();
+
+	private volatile boolean record = true;
+	private volatile boolean failNotify;
+	private volatile boolean closeOnRequest = true;
+	private volatile String[] capabilities = { "actions", "body", "body-markup" };
+
+	/**
+	 * Constructor. Starts the daemon and registers the service.
+	 *
+	 * @throws IOException on error
+	 */
+	public FakeNotificationsService() throws IOException {
+		dir = Files.createTempDirectory("twoslices-dbus");
+		address = "unix:path=" + dir.resolve("bus");
+		try {
+			daemon = new EmbeddedDBusDaemon(address + ",listen=true");
+			daemon.startInBackgroundAndWait(10000);
+			conn = DBusConnectionBuilder.forAddress(address).withShared(false).build();
+			conn.requestBusName("org.freedesktop.Notifications");
+			conn.exportObject(PATH, service);
+		} catch (DBusException e) {
+			throw new IOException("Failed to start fake notification service.", e);
+		}
+		System.setProperty("DBUS_SESSION_BUS_ADDRESS", address);
+	}
+
+	/**
+	 * Get the bus address of the daemon.
+	 *
+	 * @return address
+	 */
+	public String address() {
+		return address;
+	}
+
+	/**
+	 * Set the capabilities returned by <code>GetCapabilities</code>. For
+	 * example, add <code>inline-reply</code> to test replies.
+	 *
+	 * @param capabilities capabilities
+	 * @return this for chaining
+	 */
+	public FakeNotificationsService capabilities(String... capabilities) {
+		this.capabilities = capabilities.clone();
+		return this;
+	}
+
+	/**
+	 * Set whether to emit <code>NotificationClosed</code> when the client calls
+	 * <code>CloseNotification</code>, as a real server does. Defaults to
+	 * <code>true</code>.
+	 *
+	 * @param closeOnRequest close on request
+	 * @return this for chaining
+	 */
+	public FakeNotificationsService closeOnRequest(boolean closeOnRequest) {
+		this.closeOnRequest = closeOnRequest;
+		return this;
+	}
+
+	/**
+	 * Set whether to keep each {@link Notification} for {@link #notifications()}.
+	 * Turn this off for long runs, the counters are still maintained.
+	 *
+	 * @param record record
+	 * @return this for chaining
+	 */
+	public FakeNotificationsService record(boolean record) {
+		this.record = record;
+		return this;
+	}
+
+	/**
+	 * Set whether to reply to <code>Notify</code> with an error, as a failing
+	 * notification server would.
+	 *
+	 * @param failNotify fail notify
+	 * @return this for chaining
+	 */
+	public FakeNotificationsService failNotify(boolean failNotify) {
+		this.failNotify = failNotify;
+		return this;
+	}
+
+	/**
+	 * Emit <code>ActionInvoked</code> for a notification, as if the user clicked
+	 * one of its actions. Use <code>default</code> for the default action.
+	 *
+	 * @param id     notification ID
+	 * @param action action key
+	 */
+	public void invokeAction(int id, String action) {
+		synchronized (open) {
+			open.remove(id);
+		}
+		actionsInvoked.incrementAndGet();
+		send(() -> new Notifications.ActionInvoked(PATH, new UInt32(id), action));
+	}
+
+	/**
+	 * Emit <code>NotificationReplied</code> for a notification, as if the user
+	 * typed an inline reply.
+	 *
+	 * @param id   notification ID
+	 * @param text reply text
+	 */
+	public void reply(int id, String text) {
+		replies.incrementAndGet();
+		send(() -> new Notifications.NotificationReplied(PATH, new UInt32(id), text));
+	}
+
+	/**
+	 * Emit <code>NotificationClosed</code> for a notification.
+	 *
+	 * @param id     notification ID
+	 * @param reason reason
+	 */
+	public void close(int id, Reason reason) {
+		synchronized (open) {
+			if (open.remove(id) == null)
+				return;
+		}
+		closed.incrementAndGet();
+		send(() -> new Notifications.NotificationClosed(PATH, new UInt32(id), new UInt32(reason.code())));
+	}
+
+	/**
+	 * Emit <code>NotificationClosed</code> with {@link Reason#EXPIRED} for every
+	 * open notification.
+	 */
+	public void expireAll() {
+		List<Integer> ids;
+		synchronized (open) {
+			ids = new ArrayList<>(open.keySet());
+		}
+		for (var id : ids)
+			close(id, Reason.EXPIRED);
+	}
+
+	/**
+	 * Forget every open notification without emitting any signal, as a server
+	 * that does not report closed notifications would.
+	 */
+	public void dropAll() {
+		synchronized (open) {
+			dropped.addAndGet(open.size());
+			open.clear();
+		}
+	}
+
+	/**
+	 * Get the notifications shown, oldest first.
+	 *
+	 * @return notifications
+	 */
+	public List<Notification> notifications() {
+		synchronized (notifications) {
+			return List.copyOf(notifications);
+		}
+	}
+
+	/**
+	 * Get the most recent notification shown.
+	 *
+	 * @return notification or <code>null</code>
+	 */
+	public Notification last() {
+		synchronized (notifications) {
+			return notifications.isEmpty() ? null : notifications.get(notifications.size() - 1);
+		}
+	}
+
+	/**
+	 * Get the number of calls to <code>Notify</code>, i.e. notifications
+	 * delivered.
+	 *
+	 * @return delivered
+	 */
+	public int delivered() {
+		return ids.get();
+	}
+
+	/**
+	 * Get the number of calls to <code>CloseNotification</code>.
+	 *
+	 * @return close requests
+	 */
+	public int closeRequests() {
+		return closeRequests.get();
+	}
+
+	/**
+	 * Get the number of <code>NotificationClosed</code> signals emitted.
+	 *
+	 * @return closed
+	 */
+	public int closed() {
+		return closed.get();
+	}
+
+	/**
+	 * Get the number of <code>ActionInvoked</code> signals emitted.
+	 *
+	 * @return actions invoked
+	 */
+	public int actionsInvoked() {
+		return actionsInvoked.get();
+	}
+
+	/**
+	 * Get the number of <code>NotificationReplied</code> signals emitted.
+	 *
+	 * @return replies
+	 */
+	public int replies() {
+		return replies.get();
+	}
+
+	/**
+	 * Get the number of notifications forgotten by {@link #dropAll()}.
+	 *
+	 * @return dropped
+	 */
+	public int dropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Get the number of notifications that are still open.
+	 *
+	 * @return open
+	 */
+	public int open() {
+		synchronized (open) {
+			return open.size();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (address.equals(System.getProperty("DBUS_SESSION_BUS_ADDRESS")))
+			System.clearProperty("DBUS_SESSION_BUS_ADDRESS");
+		try {
+			conn.close();
+		} finally {
+			daemon.close();
+			Files.deleteIfExists(dir.resolve("bus"));
+			Files.deleteIfExists(dir);
+		}
+	}
+
+	private interface SignalFactory {
+		DBusSignal create() throws DBusException;
+	}
+
+	private void send(SignalFactory signal) {
+		try {
+			conn.sendMessage(signal.create());
+		} catch (DBusException e) {
+			throw new IllegalStateException("Failed to send signal.", e);
+		}
+	}
+
+	private final class Service implements Notifications {
+
+		@Override
+		public String getObjectPath() {
+			return PATH;
+		}
+
+		@Override
+		public void CloseNotification(int id) {
+			closeRequests.incrementAndGet();
+			if (closeOnRequest)
+				close(id, Reason.CLOSED);
+		}
+
+		@Override
+		public String[] GetCapabilities() {
+			return capabilities.clone();
+		}
+
+		@Override
+		public String[] GetServerInformation() {
+			return new String[] { "Fake", "SSHTOOLS", "1.0", "1.2" };
+		}
+
+		@Override
+		public UInt32 Notify(String appName, UInt32 replacesId, String appIcon, String summary, String body,
+				List<String> actions, Map<String, Variant<?>> hints, int expireTimeout) {
+			if (failNotify)
+				throw new DBusExecutionException("Notify failed.");
+			var id = ids.incrementAndGet();
+			var notification = new Notification(id, appName, appIcon, summary, body, actions, hints, expireTimeout);
+			synchronized (open) {
+				open.put(id, notification);
+			}
+			if (record) {
+				synchronized (notifications) {
+					notifications.add(notification);
+				}
+			}
+			return new UInt32(id);
+		}
+	}
+}
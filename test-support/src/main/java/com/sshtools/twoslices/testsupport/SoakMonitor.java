@@ -0,0 +1,221 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.testsupport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Samples resource usage of the JVM while a soak test runs, and detects
+ * resources that grow steadily rather than levelling off. The measures
+ * sampled are:
+ * <ul>
+ * <li>retained heap, i.e. heap used after a full collection</li>
+ * <li>live threads</li>
+ * <li>open file descriptors, where the platform reports them</li>
+ * <li>temporary files created by the library</li>
+ * <li>files registered to be deleted on exit, if
+ * <code>java.base/java.io</code> is opened to this module</li>
+ * </ul>
+ * Further measures may be added with {@link #track(String, long, LongSupplier)}.
+ * <p>
+ * Call {@link #sample()} at regular intervals. A measure is considered to be
+ * leaking when it grew at nearly every sample and its total growth exceeds its
+ * tolerance.
+ */
+public final class SoakMonitor {
+
+	/**
+	 * The fraction of intervals that must show growth for a measure to be
+	 * considered growing monotonically. Less than one to allow for the
+	 * occasional collection of a leaked resource.
+	 */
+	private final static double GROWTH_FRACTION = 0.8;
+
+	private final static class Measure {
+		private final String name;
+		private final long tolerance;
+		private final LongSupplier supplier;
+		private final List<Long> samples = new ArrayList<>();
+
+		Measure(String name, long tolerance, LongSupplier supplier) {
+			this.name = name;
+			this.tolerance = tolerance;
+			this.supplier = supplier;
+		}
+
+		boolean growing() {
+			if (samples.size() < 3)
+				return false;
+			var increases = 0;
+			for (int i = 1; i < samples.size(); i++) {
+				if (samples.get(i) > samples.get(i - 1))
+					increases++;
+			}
+			return increases >= Math.ceil((samples.size() - 1) * GROWTH_FRACTION)
+					&& samples.get(samples.size() - 1) - samples.get(0) > tolerance;
+		}
+
+		@Override
+		public String toString() {
+			return name + " " + samples;
+		}
+	}
+
+	private final Map<String, Measure> measures = new LinkedHashMap<>();
+
+	/**
+	 * Constructor. Tracks the standard measures.
+	 */
+	public SoakMonitor() {
+		track("heap", 8 * 1024 * 1024, SoakMonitor::retainedHeap);
+		track("threads", 2, () -> ManagementFactory.getThreadMXBean().getThreadCount());
+		track("fds", 4, SoakMonitor::openFileDescriptors);
+		track("tempFiles", 0, SoakMonitor::tempFiles);
+		track("deleteOnExit", 0, SoakMonitor::deleteOnExitFiles);
+	}
+
+	/**
+	 * Track an additional measure, e.g. one of the counters of a stand-in
+	 * service.
+	 *
+	 * @param name      name
+	 * @param tolerance total growth allowed over the run
+	 * @param supplier  supplies current value
+	 * @return this for chaining
+	 */
+	public SoakMonitor track(String name, long tolerance, LongSupplier supplier) {
+		measures.put(name, new Measure(name, tolerance, supplier));
+		return this;
+	}
+
+	/**
+	 * Take a sample of every measure. Measures that cannot be read on this
+	 * platform are sampled as -1, and so never appear to grow.
+	 */
+	public void sample() {
+		for (var measure : measures.values())
+			measure.samples.add(measure.supplier.getAsLong());
+	}
+
+	/**
+	 * Get the samples taken so far for a measure.
+	 *
+	 * @param name name
+	 * @return samples
+	 */
+	public List<Long> samples(String name) {
+		return List.copyOf(measures.get(name).samples);
+	}
+
+	/**
+	 * Get a description of each measure that is growing monotonically.
+	 *
+	 * @return growing measures, empty if none
+	 */
+	public List<String> growing() {
+		var growing = new ArrayList<String>();
+		for (var measure : measures.values()) {
+			if (measure.growing())
+				growing.add(measure.toString());
+		}
+		return growing;
+	}
+
+	/**
+	 * Fail if any measure is growing monotonically.
+	 *
+	 * @throws AssertionError if a measure is growing
+	 */
+	public void assertNoGrowth() {
+		var growing = growing();
+		if (!growing.isEmpty())
+			throw new AssertionError("Resources growing: " + String.join(", ", growing));
+	}
+
+	@Override
+	public String toString() {
+		return measures.values().toString();
+	}
+
+	/**
+	 * Get heap used after requesting a full collection.
+	 *
+	 * @return retained heap in bytes
+	 */
+	public static long retainedHeap() {
+		var memory = ManagementFactory.getMemoryMXBean();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * Get the number of open file descriptors.
+	 *
+	 * @return open file descriptors, or -1 if not available
+	 */
+	public static long openFileDescriptors() {
+		var os = ManagementFactory.getOperatingSystemMXBean();
+		if (os instanceof com.sun.management.UnixOperatingSystemMXBean)
+			return ((com.sun.management.UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+		return -1;
+	}
+
+	/**
+	 * Get the number of files in the temporary directory created by the library.
+	 *
+	 * @return temporary files
+	 */
+	public static long tempFiles() {
+		try (var stream = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+			return stream.map(Path::getFileName).map(Path::toString)
+					.filter(n -> (n.startsWith("two-slices") || n.startsWith("twoslices")) && n.indexOf('.') != -1)
+					.count();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Get the number of files registered with {@link java.io.File#deleteOnExit()}.
+	 * This needs <code>--add-opens java.base/java.io=ALL-UNNAMED</code>.
+	 *
+	 * @return files to delete on exit, or -1 if not available
+	 */
+	public static long deleteOnExitFiles() {
+		try {
+			var field = Class.forName("java.io.DeleteOnExitHook").getDeclaredField("files");
+			field.setAccessible(true);
+			var files = (Collection<?>) field.get(null);
+			synchronized (Class.forName("java.io.DeleteOnExitHook")) {
+				return files.size();
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.testsupport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+import com.sshtools.twoslices.BasicToastHint;
+import com.sshtools.twoslices.ToasterSettings;
+
+/**
+ * A shell script that stands in for <strong>notify-send</strong>. Each
+ * invocation, other than <code>--help</code> which is used to probe for the
+ * command, appends its arguments as one line to a log, then exits with the
+ * configured code. Point a <code>NotifyToaster</code> at it using
+ * {@link #configure(ToasterSettings)}.
+ */
+public final class StubNotifySend implements Closeable {
+
+	private final Path dir;
+	private final Path script;
+	private final Path log;
+
+	/**
+	 * Constructor. Creates a stub that always succeeds.
+	 *
+	 * @throws IOException on error
+	 */
+	public StubNotifySend() throws IOException {
+		dir = Files.createTempDirectory("twoslices-notify-send");
+		script = dir.resolve("notify-send");
+		log = dir.resolve("calls.log");
+		Files.createFile(log);
+		write(0);
+	}
+
+	/**
+	 * Get the path of the script.
+	 *
+	 * @return path
+	 */
+	public String path() {
+		return script.toString();
+	}
+
+	/**
+	 * Set the hints in the settings needed for a toaster to use this stub.
+	 *
+	 * @param settings settings
+	 * @return settings for chaining
+	 */
+	public ToasterSettings configure(ToasterSettings settings) {
+		settings.getHints().put(BasicToastHint.NOTIFY_SEND_PATH, path());
+		return settings;
+	}
+
+	/**
+	 * Set the exit code of subsequent invocations. A non-zero code will cause the
+	 * toaster to fail.
+	 *
+	 * @param exitCode exit code
+	 * @return this for chaining
+	 */
+	public StubNotifySend exitCode(int exitCode) {
+		try {
+			write(exitCode);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Get the number of times the command has been invoked to show a
+	 * notification.
+	 *
+	 * @return invocations
+	 */
+	public int invocations() {
+		return calls().size();
+	}
+
+	/**
+	 * Get the arguments of each invocation, one string per invocation.
+	 *
+	 * @return calls
+	 */
+	public List<String> calls() {
+		try {
+			return Files.readAllLines(log);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Forget all recorded invocations.
+	 */
+	public void reset() {
+		try {
+			Files.write(log, new byte[0]);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		Files.deleteIfExists(script);
+		Files.deleteIfExists(log);
+		Files.deleteIfExists(dir);
+	}
+
+	private void write(int exitCode) throws IOException {
+		var tmp = dir.resolve("notify-send.tmp");
+		Files.writeString(tmp, String.format("#!/bin/sh\n"
+				+ "[ \"$1\" = \"--help\" ] && exit 0\n"
+				+ "echo \"$*\" >> '%s'\n"
+				+ "exit %d\n", log, exitCode));
+		Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rwx------"));
+		Files.move(tmp, script, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+}
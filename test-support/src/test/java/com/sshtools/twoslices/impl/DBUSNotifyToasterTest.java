@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.freedesktop.dbus.connections.impl.DBusConnectionBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sshtools.twoslices.BasicToastHint;
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.testsupport.FakeNotificationsService;
+import com.sshtools.twoslices.testsupport.SoakMonitor;
+
+/**
+ * Tests for {@link DBUSNotifyToaster}, using a {@link FakeNotificationsService}.
+ * These do not need a desktop.
+ */
+public class DBUSNotifyToasterTest {
+
+	private FakeNotificationsService service;
+
+	@Before
+	public void start() throws Exception {
+		service = new FakeNotificationsService();
+	}
+
+	@After
+	public void stop() throws Exception {
+		service.close();
+	}
+
+	@Test
+	public void deletesTempImageWhenNotifyFails() throws Exception {
+		/* A non-file URL, so the image is copied to a temporary file */
+		var zip = Files.createTempFile("images", ".zip");
+		try {
+			try (var out = new ZipOutputStream(Files.newOutputStream(zip))) {
+				out.putNextEntry(new ZipEntry("image.png"));
+				out.write(new byte[] { 1, 2, 3 });
+				out.closeEntry();
+			}
+			var image = "jar:" + zip.toUri() + "!/image.png";
+			var before = SoakMonitor.tempFiles();
+			service.failNotify(true);
+			try (var toaster = new DBUSNotifyToaster(new ToasterSettings())) {
+				new ToastBuilder().toaster(toaster).title("Title").content("Content").image(image).toast();
+				fail("Expected exception.");
+			} catch (RuntimeException re) {
+			}
+			assertEquals(before, SoakMonitor.tempFiles());
+		} finally {
+			Files.delete(zip);
+		}
+	}
+
+	@Test
+	public void sharesConnection() throws Exception {
+		try (var conn = DBusConnectionBuilder.forAddress(service.address()).withShared(false).build()) {
+			var invoked = new CountDownLatch(1);
+			var toaster = new DBUSNotifyToaster(new ToasterSettings().setParent(conn));
+			new ToastBuilder().toaster(toaster).title("Title").content("Content")
+					.action("open", "Open", invoked::countDown).toast();
+			assertEquals(1, service.delivered());
+			toaster.close();
+			assertTrue(conn.isConnected());
+			/* Signal handlers have been removed, so the action is not invoked */
+			service.invokeAction(service.last().id(), "open");
+			assertFalse(invoked.await(500, TimeUnit.MILLISECONDS));
+		}
+	}
+
+	@Test
+	public void leanConnectionUsesOneThreadOfEachKind() {
+		var normal = DBUSNotifyToaster.connectionBuilder(false).receivingThreadConfig().build();
+		assertTrue(normal.getMethodCallThreadPoolSize() > 1);
+
+		var lean = DBUSNotifyToaster.connectionBuilder(true).receivingThreadConfig().build();
+		assertEquals(1, lean.getSignalThreadPoolSize());
+		assertEquals(1, lean.getErrorThreadPoolSize());
+		assertEquals(1, lean.getMethodCallThreadPoolSize());
+		assertEquals(1, lean.getMethodReturnThreadPoolSize());
+	}
+
+	@Test
+	public void leanConnectionDelivers() throws Exception {
+		var settings = new ToasterSettings();
+		settings.getHints().put(BasicToastHint.DBUS_LEAN, true);
+		try (var toaster = new DBUSNotifyToaster(settings)) {
+			var invoked = new CountDownLatch(1);
+			new ToastBuilder().toaster(toaster).title("Title").content("Content")
+					.action("open", "Open", invoked::countDown).toast();
+			service.invokeAction(service.last().id(), "open");
+			assertTrue(invoked.await(10, TimeUnit.SECONDS));
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.testsupport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.function.IntConsumer;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+import com.sshtools.twoslices.Slice;
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToastType;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.impl.DBUSNotifyToaster;
+import com.sshtools.twoslices.impl.GNTPToaster;
+import com.sshtools.twoslices.impl.NotifyToaster;
+
+/**
+ * Soak tests that drive a large number of messages through each backend that
+ * can be tested on Linux without a desktop, and fail if resource usage grows
+ * steadily. These only run with the <code>soak</code> profile.
+ * <p>
+ * The number of messages is set with the <code>twoslices.soak.toasts</code>
+ * system property, and defaults to one million. As it spawns a process per
+ * message, {@link NotifyToaster} is sent a tenth of this.
+ */
+public class BackendSoakTest {
+
+	private final static int TOASTS = Integer.getInteger("twoslices.soak.toasts", 1000000);
+	private final static int SAMPLES = Integer.getInteger("twoslices.soak.samples", 20);
+
+	private static HttpServer images;
+	private static String imageUrl;
+
+	@BeforeClass
+	public static void startImageServer() throws IOException {
+		byte[] png;
+		try (var in = GNTPToaster.class.getResourceAsStream("/images/idle-48.png")) {
+			png = in.readAllBytes();
+		}
+		images = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		images.createContext("/", exchange -> {
+			exchange.sendResponseHeaders(200, png.length);
+			try (var out = exchange.getResponseBody()) {
+				out.write(png);
+			}
+		});
+		images.start();
+		imageUrl = "http://127.0.0.1:" + images.getAddress().getPort() + "/image.png";
+	}
+
+	@AfterClass
+	public static void stopImageServer() {
+		images.stop(0);
+	}
+
+	@Test
+	public void gntp() throws Exception {
+		try (var server = new FakeGNTPServer()) {
+			var settings = server.configure(new ToasterSettings());
+			var toaster = new GNTPToaster[] { new GNTPToaster(settings) };
+			var monitor = new SoakMonitor().track("connections", 2, server::openConnections);
+			soak(monitor, TOASTS, i -> {
+				/* Registration extracts icons, so also soak creating toasters */
+				if (i % 1000 == 0)
+					toaster[0] = new GNTPToaster(settings);
+				new ToastBuilder().toaster(toaster[0]).type(ToastType.INFO).title("Title " + i).content("Content")
+						.toast();
+			});
+		}
+	}
+
+	@Test
+	public void dbus() throws Exception {
+		try (var service = new FakeNotificationsService().record(false)) {
+			var toaster = new DBUSNotifyToaster(new ToasterSettings());
+			var monitor = new SoakMonitor().track("serviceOpen", 0, service::open);
+			soak(monitor, TOASTS, i -> {
+				var builder = new ToastBuilder().toaster(toaster).type(ToastType.INFO).title("Title " + i)
+						.content("Content").action("open", "Open", () -> {
+						});
+				if (i % 100 == 0)
+					builder.image(imageUrl);
+				Slice slice = builder.toast();
+				switch (i % 4) {
+				case 0:
+					close(slice);
+					break;
+				case 1:
+					service.invokeAction(service.delivered(), "open");
+					break;
+				default:
+					/* Left open, to be expired or dropped by the server below */
+					break;
+				}
+				if (i % 1000 == 999) {
+					if ((i / 1000) % 2 == 0)
+						service.expireAll();
+					else
+						service.dropAll();
+				}
+			});
+		}
+	}
+
+	@Test
+	public void notifySend() throws Exception {
+		try (var command = new StubNotifySend()) {
+			var toaster = new NotifyToaster(command.configure(new ToasterSettings()));
+			soak(new SoakMonitor(), Math.max(SAMPLES * 10, TOASTS / 10), i -> {
+				if (i % 10000 == 0)
+					command.reset();
+				new ToastBuilder().toaster(toaster).type(ToastType.INFO).title("Title " + i).content("Content")
+						.toast();
+			});
+		}
+	}
+
+	private static void soak(SoakMonitor monitor, int toasts, IntConsumer toast) {
+		/* The first interval is a warm up, so is not sampled */
+		var interval = Math.max(1, toasts / (SAMPLES + 1));
+		for (int i = 0; i < toasts; i++) {
+			toast.accept(i);
+			if (i >= interval && (i + 1) % interval == 0)
+				monitor.sample();
+		}
+		monitor.assertNoGrowth();
+	}
+
+	private static void close(Slice slice) {
+		try {
+			slice.close();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
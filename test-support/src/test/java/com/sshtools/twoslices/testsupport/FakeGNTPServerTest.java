@@ -0,0 +1,95 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.testsupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToasterException;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.impl.GNTPToaster;
+import com.sshtools.twoslices.testsupport.FakeGNTPServer.Failure;
+
+/**
+ * Tests for {@link FakeGNTPServer}, driven by a real {@link GNTPToaster}. These
+ * do not need a desktop.
+ */
+public class FakeGNTPServerTest {
+
+	private FakeGNTPServer server;
+	private GNTPToaster toaster;
+
+	@Before
+	public void start() throws Exception {
+		server = new FakeGNTPServer();
+		toaster = new GNTPToaster(server.configure(new ToasterSettings()));
+	}
+
+	@After
+	public void stop() throws Exception {
+		server.close();
+	}
+
+	@Test
+	public void acceptsRegisterAndNotify() {
+		for (int i = 0; i < 5; i++)
+			new ToastBuilder().toaster(toaster).title("Title").content("Content").toast();
+		assertEquals(1, server.registered());
+		assertEquals(5, server.received());
+		assertEquals(5, server.delivered());
+		assertEquals(0, server.failed());
+	}
+
+	@Test
+	public void injectsErrorResponse() {
+		server.failEvery(2);
+		assertEquals(2, failures(4));
+		assertEquals(2, server.failed());
+		assertEquals(2, server.delivered());
+	}
+
+	@Test
+	public void injectsDisconnect() {
+		server.failEvery(1).failure(Failure.DISCONNECT);
+		assertEquals(2, failures(2));
+		assertEquals(2, server.failed());
+	}
+
+	@Test
+	public void addsLatency() {
+		server.latency(200);
+		var started = System.currentTimeMillis();
+		new ToastBuilder().toaster(toaster).title("Title").content("Content").toast();
+		assertTrue(System.currentTimeMillis() - started >= 200);
+	}
+
+	private int failures(int count) {
+		var failures = 0;
+		for (int i = 0; i < count; i++) {
+			try {
+				new ToastBuilder().toaster(toaster).title("Title").content("Content").toast();
+			} catch (ToasterException te) {
+				failures++;
+			}
+		}
+		return failures;
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.testsupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.impl.DBUSNotifyToaster;
+
+/**
+ * Tests for {@link FakeNotificationsService}, driven by a real
+ * {@link DBUSNotifyToaster}. These do not need a desktop.
+ */
+public class FakeNotificationsServiceTest {
+
+	private FakeNotificationsService service;
+
+	@Before
+	public void start() throws Exception {
+		service = new FakeNotificationsService();
+	}
+
+	@After
+	public void stop() throws Exception {
+		service.close();
+	}
+
+	@Test
+	public void recordsNotify() {
+		var toaster = new DBUSNotifyToaster(new ToasterSettings().setAppName("Test"));
+		new ToastBuilder().toaster(toaster).title("Title").content("Content").action("open", "Open").toast();
+		assertEquals(1, service.delivered());
+		assertEquals(1, service.open());
+		var notification = service.last();
+		assertEquals("Test", notification.appName());
+		assertEquals("Title", notification.summary());
+		assertEquals("Content", notification.body());
+		assertEquals(List.of("open", "Open"), notification.actions());
+	}
+
+	@Test
+	public void closesOnRequest() throws Exception {
+		var toaster = new DBUSNotifyToaster(new ToasterSettings());
+		var slice = new ToastBuilder().toaster(toaster).title("Title").content("Content").toast();
+		slice.close();
+		assertEquals(1, service.closeRequests());
+		assertEquals(1, service.closed());
+		assertEquals(0, service.open());
+	}
+
+	@Test
+	public void emitsActionInvoked() throws Exception {
+		var invoked = new CountDownLatch(1);
+		var toaster = new DBUSNotifyToaster(new ToasterSettings());
+		new ToastBuilder().toaster(toaster).title("Title").content("Content").action("open", "Open", invoked::countDown)
+				.toast();
+		service.invokeAction(service.last().id(), "open");
+		assertTrue(invoked.await(10, TimeUnit.SECONDS));
+		assertEquals(1, service.actionsInvoked());
+		assertEquals(0, service.open());
+	}
+
+	@Test
+	public void emitsNotificationReplied() throws Exception {
+		service.capabilities("actions", "body", "inline-reply");
+		var reply = new String[1];
+		var replied = new CountDownLatch(1);
+		var toaster = new DBUSNotifyToaster(new ToasterSettings());
+		new ToastBuilder().toaster(toaster).title("Title").content("Content").input("reply", "Reply", "Message",
+				text -> {
+					reply[0] = text;
+					replied.countDown();
+				}).toast();
+		assertEquals(List.of("inline-reply", "Reply"), service.last().actions());
+		service.reply(service.last().id(), "Hello");
+		assertTrue(replied.await(10, TimeUnit.SECONDS));
+		assertEquals("Hello", reply[0]);
+	}
+
+	@Test
+	public void expiresOpenNotifications() {
+		var toaster = new DBUSNotifyToaster(new ToasterSettings());
+		for (int i = 0; i < 3; i++)
+			new ToastBuilder().toaster(toaster).title("Title " + i).content("Content").toast();
+		assertEquals(3, service.open());
+		service.expireAll();
+		assertEquals(0, service.open());
+		assertEquals(3, service.closed());
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright © 2018 SSHTOOLS Limited (support@sshtools.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sshtools.twoslices.testsupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sshtools.twoslices.ToastBuilder;
+import com.sshtools.twoslices.ToastType;
+import com.sshtools.twoslices.ToasterException;
+import com.sshtools.twoslices.ToasterSettings;
+import com.sshtools.twoslices.impl.NotifyToaster;
+
+/**
+ * Tests for {@link StubNotifySend}, driven by a real {@link NotifyToaster}.
+ * These do not need a desktop.
+ */
+public class StubNotifySendTest {
+
+	private StubNotifySend command;
+	private NotifyToaster toaster;
+
+	@Before
+	public void start() throws Exception {
+		command = new StubNotifySend();
+		toaster = new NotifyToaster(command.configure(new ToasterSettings()));
+	}
+
+	@After
+	public void stop() throws Exception {
+		command.close();
+	}
+
+	@Test
+	public void recordsInvocations() {
+		new ToastBuilder().toaster(toaster).type(ToastType.INFO).title("Title").content("Content").toast();
+		new ToastBuilder().toaster(toaster).type(ToastType.NONE).title("Other").content("Content").toast();
+		assertEquals(2, command.invocations());
+		assertTrue(command.calls().get(0).contains("dialog-information"));
+		assertTrue(command.calls().get(1).endsWith("Other Content"));
+	}
+
+	@Test
+	public void failsWithExitCode() {
+		command.exitCode(1);
+		try {
+			new ToastBuilder().toaster(toaster).title("Title").content("Content").toast();
+			fail("Expected failure.");
+		} catch (ToasterException te) {
+		}
+		assertEquals(1, command.invocations());
+	}
+}